@@ -0,0 +1,80 @@
+package com.quantumhotel.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Amenity;
+import com.quantumhotel.entity.Location;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+public class JpaConfig {
+
+    // entity -> (app.cache.l2.<key>.max-size, default size)
+    private static final Map<Class<?>, Map.Entry<String, Long>> CACHED_ENTITIES = Map.of(
+            AccommodationCategory.class, Map.entry("categories", 500L),
+            AccommodationUnit.class, Map.entry("units", 5_000L),
+            Amenity.class, Map.entry("amenities", 500L),
+            Location.class, Map.entry("location", 10L)
+    );
+
+    // JDBC and fetch batching defaults; application.properties still wins
+    @Bean
+    HibernatePropertiesCustomizer batching() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", "50");
+            properties.putIfAbsent("hibernate.order_inserts", "true");
+            properties.putIfAbsent("hibernate.order_updates", "true");
+            // lazy associations loaded outside an entity graph come in batches, not one query per row
+            properties.putIfAbsent("hibernate.default_batch_fetch_size", "50");
+        };
+    }
+
+    /*
+     * Second-level cache for the reference entities above (@Cache READ_WRITE).
+     * One bounded Caffeine region per entity, sized by
+     * app.cache.l2.<key>.max-size and expired after app.cache.l2.ttl as a guard
+     * against writes that bypass Hibernate. The manager is private to this
+     * context so two contexts in one JVM never share entries.
+     */
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("quantumhotel-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+        Duration ttl = environment.getProperty("app.cache.l2.ttl", Duration.class, Duration.ofHours(1));
+
+        CACHED_ENTITIES.forEach((entity, limit) -> {
+            CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+            region.setMaximumSize(OptionalLong.of(environment.getProperty(
+                    "app.cache.l2." + limit.getKey() + ".max-size", Long.class, limit.getValue())));
+            region.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(entity.getName(), region);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.putIfAbsent("hibernate.cache.use_second_level_cache", "true");
+            properties.putIfAbsent("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            // every @Cache entity needs a bounded region in CACHED_ENTITIES
+            properties.putIfAbsent("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // feeds the hibernate.second.level.cache.* meters
+            properties.putIfAbsent("hibernate.generate_statistics", "true");
+        };
+    }
+}
@@ -57,6 +57,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/room-categories").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/room-categories/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/room-categories/available**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/room-categories/calendar").permitAll()
 
                         // User reservation routes
                         .requestMatchers(HttpMethod.GET, "/api/reservations/me").authenticated()
@@ -0,0 +1,52 @@
+package com.quantumhotel.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * reservation_amenities used IDENTITY ids before it moved to a pooled
+ * sequence. On PostgreSQL the sequence Hibernate creates starts at 1, so it
+ * is moved past the highest existing id before the application takes any
+ * traffic. Runs on every start; it only ever moves a sequence forward.
+ */
+@Component
+public class SequenceAlignment implements InitializingBean {
+
+    private record Sequence(String name, String table, String idColumn) { }
+
+    private static final List<Sequence> SEQUENCES = List.of(
+            new Sequence("reservation_amenities_seq", "reservation_amenities", "id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // the EntityManagerFactory parameter makes this run after the schema update
+    public SequenceAlignment(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        for (Sequence sequence : SEQUENCES) {
+            // with is_called = true the next pooled block starts right after MAX(id)
+            List<Long> moved = jdbcTemplate.queryForList(
+                    "SELECT setval('" + sequence.name() + "', MAX(" + sequence.idColumn() + "))"
+                            + " FROM " + sequence.table()
+                            + " HAVING MAX(" + sequence.idColumn() + ") > (SELECT last_value FROM " + sequence.name() + ")",
+                    Long.class);
+            if (!moved.isEmpty()) {
+                System.out.println("Sequence " + sequence.name() + " moved to " + moved.get(0));
+            }
+        }
+    }
+}
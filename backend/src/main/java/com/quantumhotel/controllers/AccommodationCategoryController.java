@@ -1,12 +1,16 @@
 package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.controllers.dto.AvailabilityCalendarDTO;
 import com.quantumhotel.services.AccommodationCategoryService;
+import com.quantumhotel.services.CatalogCache;
+import com.quantumhotel.services.ContentVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -20,10 +24,17 @@ import java.util.Map;
 public class AccommodationCategoryController {
 
     private final AccommodationCategoryService categoryService;
+    private final CatalogCache catalogCache;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
-    public List<AccommodationCategoryDTO> getAll() {
-        return categoryService.getAll();
+    public ResponseEntity<byte[]> getAll(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.CATEGORIES)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogCache.categories().json());
     }
 
     @GetMapping("/{id}")
@@ -39,6 +50,14 @@ public class AccommodationCategoryController {
         return categoryService.getAvailableCategories(from, to, persons);
     }
 
+    @GetMapping("/calendar")
+    public AvailabilityCalendarDTO getCalendar(
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to,
+            @RequestParam(defaultValue = "1") Integer persons) {
+        return categoryService.getAvailabilityCalendar(from, to, persons);
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
     public AccommodationCategoryDTO create(@RequestBody AccommodationCategoryDTO dto) {
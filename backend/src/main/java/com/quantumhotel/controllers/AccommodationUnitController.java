@@ -2,11 +2,14 @@ package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.AccommodationUnitDTO;
 import com.quantumhotel.services.AccommodationUnitService;
+import com.quantumhotel.services.CatalogCache;
+import com.quantumhotel.services.ContentVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.NativeWebRequest;
 
 @RestController
 @RequestMapping("/api/rooms")
@@ -14,11 +17,18 @@ import java.util.List;
 public class AccommodationUnitController {
 
     private final AccommodationUnitService unitService;
+    private final CatalogCache catalogCache;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('STAFF','ADMIN')")
-    public List<AccommodationUnitDTO> getAll() {
-        return unitService.getAll();
+    public ResponseEntity<byte[]> getAll(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.UNITS)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogCache.units().json());
     }
 
     @GetMapping("/{id}")
@@ -6,7 +6,10 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 
 
 import com.quantumhotel.controllers.dto.ReservationDetailsDTO;
+import com.quantumhotel.controllers.dto.ReservationFilter;
 import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.controllers.dto.ReservationPageDTO;
+import com.quantumhotel.entity.ReservationStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -31,6 +34,25 @@ public class AdminReservationController {
         return reservationService.adminGetAll();
     }
 
+    @GetMapping("/page")
+    public ReservationPageDTO getPage(
+            @RequestParam(required = false) ReservationStatus status,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String guest,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        return reservationService.adminSearch(
+                new ReservationFilter(status, categoryId, from, to, guest),
+                cursor,
+                size,
+                withTotal
+        );
+    }
+
     @GetMapping("/{id}")
     public ReservationDetailsDTO get(@PathVariable Long id) {
         return reservationService.adminGet(id);
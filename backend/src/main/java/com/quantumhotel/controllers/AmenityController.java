@@ -2,11 +2,14 @@ package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.AmenityDTO;
 import com.quantumhotel.services.AmenityService;
+import com.quantumhotel.services.CatalogCache;
+import com.quantumhotel.services.ContentVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.NativeWebRequest;
 
 @RestController
 @RequestMapping("/api/addons")
@@ -14,10 +17,17 @@ import java.util.List;
 public class AmenityController {
 
     private final AmenityService amenityService;
+    private final CatalogCache catalogCache;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
-    public List<AmenityDTO> getAll() {
-        return amenityService.getAll();
+    public ResponseEntity<byte[]> getAll(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.AMENITIES)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogCache.amenities().json());
     }
 
     @GetMapping("/{id}")
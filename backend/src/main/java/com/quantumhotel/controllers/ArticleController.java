@@ -3,10 +3,12 @@ package com.quantumhotel.controllers;
 import com.quantumhotel.controllers.dto.ArticleRequest;
 import com.quantumhotel.controllers.dto.ArticleResponse;
 import com.quantumhotel.services.ArticleService;
+import com.quantumhotel.services.ContentVersions;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
@@ -18,19 +20,27 @@ import java.util.List;
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final ConditionalGet conditionalGet;
 
-    public ArticleController(ArticleService articleService) {
+    public ArticleController(ArticleService articleService, ConditionalGet conditionalGet) {
         this.articleService = articleService;
+        this.conditionalGet = conditionalGet;
     }
 
     // PUBLIC
     @GetMapping
-    public List<ArticleResponse> getAll() {
+    public List<ArticleResponse> getAll(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.ARTICLES)) {
+            return null;
+        }
         return articleService.getAll();
     }
 
     @GetMapping("/{id}")
-    public ArticleResponse getById(@PathVariable Long id) {
+    public ArticleResponse getById(@PathVariable Long id, NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.ARTICLES)) {
+            return null;
+        }
         return articleService.getById(id);
     }
 
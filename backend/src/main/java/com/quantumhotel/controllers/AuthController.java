@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import com.quantumhotel.services.EmailService;
 
@@ -36,6 +37,7 @@ public class AuthController {
     }
 
     @PostMapping("/register")
+    @Transactional
     public ResponseEntity<Map<String, Object>> register(@RequestBody RegisterRequestDto request) {
         if (userRepository.findByEmail(request.email()).isPresent()) {
             return jsonResponse(false, "Email already in use.", HttpStatus.BAD_REQUEST);
@@ -81,6 +83,7 @@ public class AuthController {
     }
 
     @PostMapping("/request-reset")
+    @Transactional
     public ResponseEntity<Map<String, Object>> requestReset(@RequestParam String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("No user found with that email."));
@@ -0,0 +1,47 @@
+package com.quantumhotel.controllers;
+
+import com.quantumhotel.services.ContentVersions;
+import com.quantumhotel.services.ContentVersions.Collection;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+
+/**
+ * Conditional GET for the public collections. Call it before loading
+ * anything: it sets ETag, Last-Modified and Cache-Control from
+ * {@link ContentVersions} and answers whether the client's copy is still
+ * current, in which case the status is already 304 and the handler returns
+ * null.
+ * <p>
+ * Cache-Control per collection comes from
+ * {@code app.http.cache-control.<key>} (faq, articles, room-categories,
+ * addons, rooms, location), falling back to
+ * {@code app.http.cache-control.default}, itself {@code no-cache}.
+ */
+@Component
+public class ConditionalGet {
+
+    private final ContentVersions versions;
+    private final Environment environment;
+
+    public ConditionalGet(ContentVersions versions, Environment environment) {
+        this.versions = versions;
+        this.environment = environment;
+    }
+
+    public boolean notModified(NativeWebRequest request, Collection collection) {
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(collection));
+        }
+        ContentVersions.Stamp stamp = versions.current(collection);
+        return request.checkNotModified(versions.etag(collection, stamp), stamp.lastModified().toEpochMilli());
+    }
+
+    private String cacheControl(Collection collection) {
+        return environment.getProperty("app.http.cache-control." + collection.key(),
+                environment.getProperty("app.http.cache-control.default", "no-cache"));
+    }
+}
@@ -2,11 +2,13 @@ package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.FaqRequest;
 import com.quantumhotel.controllers.dto.FaqResponse;
+import com.quantumhotel.services.ContentVersions;
 import com.quantumhotel.services.FaqService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
@@ -18,14 +20,19 @@ import java.util.List;
 public class FaqController {
 
     private final FaqService faqService;
+    private final ConditionalGet conditionalGet;
 
-    public FaqController(FaqService faqService) {
+    public FaqController(FaqService faqService, ConditionalGet conditionalGet) {
         this.faqService = faqService;
+        this.conditionalGet = conditionalGet;
     }
 
     // PUBLIC
     @GetMapping
-    public List<FaqResponse> getAll() {
+    public List<FaqResponse> getAll(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.FAQ)) {
+            return null;
+        }
         return faqService.findAll();
     }
 
@@ -1,38 +1,36 @@
 package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.LocationResponseDto;
-import com.quantumhotel.entity.Location;
-import com.quantumhotel.repository.LocationRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.quantumhotel.services.CatalogCache;
+import com.quantumhotel.services.ContentVersions;
+import com.quantumhotel.services.LocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 @RestController
 @RequestMapping("/api/location")
+@RequiredArgsConstructor
 public class LocationController {
 
-    @Autowired
-    private LocationRepository locationRepository;
+    private final LocationService locationService;
+    private final CatalogCache catalogCache;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
-    public LocationResponseDto getLocation() {
-        Location loc = locationRepository.findById(1L)
-                .orElseGet(() -> {
-                    Location defaultLoc = new Location();
-                    defaultLoc.setLatitude(45.801278);
-                    defaultLoc.setLongitude(15.969584);
-                    return locationRepository.save(defaultLoc);
-                });
-
-        return new LocationResponseDto(loc.getLatitude(), loc.getLongitude());
+    public ResponseEntity<byte[]> getLocation(NativeWebRequest request) {
+        if (conditionalGet.notModified(request, ContentVersions.Collection.LOCATION)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogCache.location().json());
     }
 
     @PatchMapping
     public LocationResponseDto updateLocation(@RequestBody LocationResponseDto updated) {
-        Location loc = locationRepository.findById(1L).orElse(new Location());
-        loc.setLatitude(updated.getLatitude());
-        loc.setLongitude(updated.getLongitude());
-        loc = locationRepository.save(loc);
-
-        return new LocationResponseDto(loc.getLatitude(), loc.getLongitude());
+        return locationService.update(updated);
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,34 @@
 package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
-import com.quantumhotel.exporters.PdfExporter;
-import com.quantumhotel.exporters.XlsxExporter;
-import com.quantumhotel.exporters.XmlExporter;
+import com.quantumhotel.exporters.ParquetExporter;
+import com.quantumhotel.exporters.ReservationFacts;
+import com.quantumhotel.exporters.ReservationLedgerExporter;
+import com.quantumhotel.exporters.ReservationLines;
+import com.quantumhotel.exporters.ReservationRows;
+import com.quantumhotel.exporters.StatisticsExporter;
+import com.quantumhotel.exporters.StatisticsExporters;
 import com.quantumhotel.services.StatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/statistics")
@@ -26,13 +39,13 @@ public class StatisticsController {
     private StatisticsService statisticsService;
 
     @Autowired
-    private XmlExporter xmlExporter;
+    private StatisticsExporters statisticsExporters;
 
     @Autowired
-    private PdfExporter pdfExporter;
+    private ReservationLedgerExporter ledgerExporter;
 
     @Autowired
-    private XlsxExporter xlsxExporter;
+    private ParquetExporter parquetExporter;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -48,78 +61,159 @@ public class StatisticsController {
         }
     }
 
-    @GetMapping("/export/xml")
+    /*
+     * The report in any format a StatisticsExporter serves, chosen by
+     * ?format= (or the path, /export/pdf) and otherwise by Accept. Several
+     * formats, format=zip or Accept: application/zip get a ZIP bundle of
+     * them rendered side by side from one computed report. reservations
+     * overrides whether a format lists the range's reservations.
+     */
+    @GetMapping({"/export", "/export/{format}"})
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
-    public ResponseEntity<byte[]> exportXml(
+    public ResponseEntity<StreamingResponseBody> export(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @PathVariable(name = "format", required = false) String pathFormat,
+            @RequestParam(name = "format", required = false) List<String> formats,
+            @RequestParam(required = false) Boolean reservations,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        List<String> requested = pathFormat != null ? List.of(pathFormat)
+                : formats != null ? formats
+                : List.of();
+        if (requested.isEmpty()) {
+            Optional<String> negotiated;
+            try {
+                negotiated = statisticsExporters.negotiate(
+                        accept != null ? MediaType.parseMediaTypes(accept) : List.of());
+            } catch (InvalidMediaTypeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (negotiated.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+            }
+            requested = List.of(negotiated.get());
+        }
+
+        Set<StatisticsExporter> exporters = new LinkedHashSet<>();
+        boolean bundle = false;
+        for (String format : requested) {
+            if (format.equalsIgnoreCase(StatisticsExporters.BUNDLE)) {
+                exporters.addAll(statisticsExporters.all());
+                bundle = true;
+                continue;
+            }
+            Optional<StatisticsExporter> exporter = statisticsExporters.find(format);
+            if (exporter.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            exporters.add(exporter.get());
+        }
+        bundle |= exporters.size() > 1;
 
         try {
             HotelStatisticsDTO statistics = statisticsService.generateStatistics(startDate, endDate);
-            byte[] xmlData = xmlExporter.export(statistics);
 
-            String filename = generateFilename("hotel_statistics", startDate, endDate, "xml");
+            // the reservations are read while a file is written, by each format that lists them
+            Function<StatisticsExporter, ReservationRows> rows = exporter ->
+                    (reservations != null ? reservations : exporter.listsReservations())
+                            ? action -> statisticsService.forEachReservation(startDate, endDate, action)
+                            : null;
 
+            String name = baseFilename("hotel_statistics", startDate, endDate);
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_XML);
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return new ResponseEntity<>(xmlData, headers, HttpStatus.OK);
+            StreamingResponseBody body;
+            if (bundle) {
+                List<StatisticsExporter> bundled = List.copyOf(exporters);
+                headers.setContentType(StatisticsExporters.ZIP);
+                headers.setContentDispositionFormData("attachment", name + ".zip");
+                body = out -> statisticsExporters.exportZip(statistics, bundled, rows, name, out);
+            } else {
+                StatisticsExporter exporter = exporters.iterator().next();
+                headers.setContentType(exporter.mediaType());
+                headers.setContentDispositionFormData("attachment", name + "." + exporter.format());
+                body = out -> exporter.export(statistics, rows.apply(exporter), out);
+            }
+
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    @GetMapping("/export/pdf")
+    /*
+     * Every reservation of the range with its add-on lines, as a CSV ledger or
+     * NDJSON, streamed from a database cursor and gzipped on the fly with
+     * gzip=true.
+     */
+    @GetMapping("/export/reservations")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
-    public ResponseEntity<byte[]> exportPdf(
+    public ResponseEntity<StreamingResponseBody> exportReservations(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
 
-        try {
-            HotelStatisticsDTO statistics = statisticsService.generateStatistics(startDate, endDate);
-            byte[] pdfData = pdfExporter.export(statistics);
-
-            String filename = generateFilename("hotel_statistics", startDate, endDate, "pdf");
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", filename);
+        String filename = generateFilename("reservations", startDate, endDate, csv ? "csv" : "ndjson");
 
-            return new ResponseEntity<>(pdfData, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        HttpHeaders headers = new HttpHeaders();
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            filename += ".gz";
+        } else {
+            headers.setContentType(csv
+                    ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                    : MediaType.APPLICATION_NDJSON);
         }
+        headers.setContentDispositionFormData("attachment", filename);
+
+        ReservationLines lines = action -> statisticsService.forEachReservationLine(startDate, endDate, action);
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            if (csv) {
+                ledgerExporter.writeCsv(lines, target);
+            } else {
+                ledgerExporter.writeNdjson(lines, target);
+            }
+            if (target instanceof GZIPOutputStream gzipped) {
+                gzipped.finish();
+            }
+        };
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
-    @GetMapping("/export/xlsx")
+    @GetMapping("/export/facts")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF')")
-    public ResponseEntity<byte[]> exportXlsx(
+    public ResponseEntity<StreamingResponseBody> exportReservationFacts(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        try {
-            HotelStatisticsDTO statistics = statisticsService.generateStatistics(startDate, endDate);
-            byte[] xlsxData = xlsxExporter.export(statistics);
-
-            String filename = generateFilename("hotel_statistics", startDate, endDate, "xlsx");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/vnd.apache.parquet"));
+        headers.setContentDispositionFormData("attachment",
+                generateFilename("reservation_facts", startDate, endDate, "parquet"));
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", filename);
+        ReservationFacts facts = action -> statisticsService.forEachReservationFact(startDate, endDate, action);
+        StreamingResponseBody body = out -> parquetExporter.export(facts, out);
 
-            return new ResponseEntity<>(xlsxData, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     private String generateFilename(String prefix, LocalDate startDate, LocalDate endDate, String extension) {
+        return baseFilename(prefix, startDate, endDate) + "." + extension;
+    }
+
+    private String baseFilename(String prefix, LocalDate startDate, LocalDate endDate) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return String.format("%s_%s_to_%s.%s",
+        return String.format("%s_%s_to_%s",
                 prefix,
                 startDate.format(formatter),
-                endDate.format(formatter),
-                extension);
+                endDate.format(formatter));
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.quantumhotel.controllers.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter @Setter
+public class AvailabilityCalendarDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private List<CategoryCalendarDTO> categories;
+}
@@ -0,0 +1,15 @@
+package com.quantumhotel.controllers.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class CategoryCalendarDTO {
+    private Long categoryId;
+    private String name;
+    private Integer units;
+    // freeUnits.get(i) = slobodne jedinice za noc from + i
+    private List<Integer> freeUnits;
+}
@@ -1,6 +1,7 @@
 package com.quantumhotel.controllers.dto;
 
-import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.repository.ReservationAmenityRow;
+import com.quantumhotel.repository.ReservationDetailsRow;
 import com.quantumhotel.users.dto.UserDto;
 import lombok.Data;
 import lombok.Getter;
@@ -36,34 +37,25 @@ public class ReservationDetailsDTO {
         private int quantity;
     }
 
-    public static ReservationDetailsDTO from(Reservation r) {
+    public static ReservationDetailsDTO from(ReservationDetailsRow row, List<ReservationAmenityRow> amenities) {
         ReservationDetailsDTO dto = new ReservationDetailsDTO();
-        dto.setId(r.getId());
-        dto.setDateFrom(r.getDateFrom());
-        dto.setDateTo(r.getDateTo());
-        dto.setStatus(r.getStatus().name());
-        dto.setCreatedAt(r.getCreatedAt());
-        dto.setProcessedAt(r.getProcessedAt());
-        dto.setUser(UserDto.from(r.getUser()));
-        dto.setProcessedBy(
-                r.getProcessedBy() != null ? UserDto.from(r.getProcessedBy()) : null
-        );
-        dto.setCategoryName(r.getCategory().getName());
-        dto.setCategoryPrice(r.getCategory().getPrice());
-        dto.setUnitNumber(r.getUnit().getRoomNumber());
-
-        //amenities
-        if (r.getReservationAmenities() != null) {
-            dto.setSelectedAmenities(
-                    r.getReservationAmenities().stream().map(ra -> {
-                        AmenityResponse amDto = new AmenityResponse();
-                        amDto.setName(ra.getAmenity().getName());
-                        amDto.setQuantity(ra.getQuantity());
-                        return amDto;
-                    }).collect(Collectors.toList())
-            );
-        }
-
+        dto.setId(row.id());
+        dto.setDateFrom(row.dateFrom());
+        dto.setDateTo(row.dateTo());
+        dto.setStatus(row.status().name());
+        dto.setCreatedAt(row.createdAt());
+        dto.setProcessedAt(row.processedAt());
+        dto.setUser(UserDto.from(row.user()));
+        dto.setProcessedBy(row.processedBy() != null ? UserDto.from(row.processedBy()) : null);
+        dto.setCategoryName(row.categoryName());
+        dto.setCategoryPrice(row.categoryPrice());
+        dto.setUnitNumber(row.unitNumber());
+        dto.setSelectedAmenities(amenities.stream().map(ra -> {
+            AmenityResponse amDto = new AmenityResponse();
+            amDto.setName(ra.name());
+            amDto.setQuantity(ra.quantity());
+            return amDto;
+        }).collect(Collectors.toList()));
         return dto;
     }
 }
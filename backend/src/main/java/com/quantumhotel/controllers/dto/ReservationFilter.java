@@ -0,0 +1,20 @@
+package com.quantumhotel.controllers.dto;
+
+import com.quantumhotel.entity.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// every field is optional; from/to select reservations that overlap [from, to)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationFilter {
+    private ReservationStatus status;
+    private Long categoryId;
+    private LocalDate from;
+    private LocalDate to;
+    private String guest;
+}
@@ -1,6 +1,8 @@
 package com.quantumhotel.controllers.dto;
 
 import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.repository.ReservationAmenityRow;
+import com.quantumhotel.repository.ReservationListRow;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -62,5 +64,26 @@ public class ReservationListDTO {
         return dto;
     }
 
-
+    public static ReservationListDTO from(ReservationListRow row, List<ReservationAmenityRow> amenities) {
+        ReservationListDTO dto = new ReservationListDTO();
+        dto.setId(row.id());
+        dto.setUserId(row.userId());
+        dto.setDateFrom(row.dateFrom());
+        dto.setDateTo(row.dateTo());
+        dto.setStatus(row.status().name());
+        dto.setCategoryName(row.categoryName());
+        dto.setCategoryId(row.categoryId());
+        dto.setCategoryPrice(row.categoryPrice());
+        dto.setUnitNumber(row.unitNumber());
+        dto.setAmenities(amenities.stream().map(ra -> {
+            AmenityItem a = new AmenityItem();
+            a.setId(ra.id());
+            a.setAmn_id(ra.amenityId());
+            a.setName(ra.name());
+            a.setQuantity(ra.quantity());
+            a.setPrice(ra.price());
+            return a;
+        }).collect(Collectors.toList()));
+        return dto;
+    }
 }
@@ -0,0 +1,18 @@
+package com.quantumhotel.controllers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ReservationPageDTO {
+    private List<ReservationListDTO> items;
+    // pass back as ?cursor= for the next page, null on the last page
+    private String nextCursor;
+    // only filled when asked for with ?withTotal=true
+    private Long total;
+}
@@ -0,0 +1,66 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Add-on quantities booked with CONFIRMED reservations, per arrival and
+ * departure day. Revenue is not stored, it is priced when a report is read.
+ */
+@Entity
+@Table(name = "daily_amenity_stats")
+@IdClass(DailyAmenityStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyAmenityStat implements Persistable<DailyAmenityStat.Key> {
+
+    @Id
+    @Column(name = "das_arrival")
+    private LocalDate arrival;
+
+    @Id
+    @Column(name = "das_departure")
+    private LocalDate departure;
+
+    @Id
+    @Column(name = "amn_id")
+    private Long amenityId;
+
+    @Column(name = "das_quantity", nullable = false)
+    private long quantity;
+
+    public DailyAmenityStat(LocalDate arrival, LocalDate departure, Long amenityId, long quantity) {
+        this.arrival = arrival;
+        this.departure = departure;
+        this.amenityId = amenityId;
+        this.quantity = quantity;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(arrival, departure, amenityId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate arrival;
+        private LocalDate departure;
+        private Long amenityId;
+    }
+}
@@ -0,0 +1,80 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Reservations per arrival and departure day broken down by one guest
+ * attribute (city, gender or age group). Age groups are as of the day the
+ * row was written.
+ */
+@Entity
+@Table(name = "daily_guest_stats")
+@IdClass(DailyGuestStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyGuestStat implements Persistable<DailyGuestStat.Key> {
+
+    public enum Dimension {
+        CITY,
+        GENDER,
+        AGE_GROUP
+    }
+
+    @Id
+    @Column(name = "dgs_arrival")
+    private LocalDate arrival;
+
+    @Id
+    @Column(name = "dgs_departure")
+    private LocalDate departure;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dgs_dimension", length = 16)
+    private Dimension dimension;
+
+    @Id
+    @Column(name = "dgs_value", length = 32)
+    private String value;
+
+    @Column(name = "dgs_reservations", nullable = false)
+    private long reservations;
+
+    public DailyGuestStat(LocalDate arrival, LocalDate departure, Dimension dimension, String value, long reservations) {
+        this.arrival = arrival;
+        this.departure = departure;
+        this.dimension = dimension;
+        this.value = value;
+        this.reservations = reservations;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(arrival, departure, dimension, value);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate arrival;
+        private LocalDate departure;
+        private Dimension dimension;
+        private String value;
+    }
+}
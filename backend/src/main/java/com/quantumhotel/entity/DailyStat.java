@@ -0,0 +1,79 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Reservations arriving on one day, per category and status. The departure
+ * day is part of the key so a statistics range selects exactly the stays
+ * that lie inside it, as the report over raw reservations does.
+ */
+@Entity
+@Table(name = "daily_stats")
+@IdClass(DailyStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyStat implements Persistable<DailyStat.Key> {
+
+    @Id
+    @Column(name = "ds_arrival")
+    private LocalDate arrival;
+
+    @Id
+    @Column(name = "ds_departure")
+    private LocalDate departure;
+
+    @Id
+    @Column(name = "cat_id")
+    private Long categoryId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ds_status", length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "ds_reservations", nullable = false)
+    private long reservations;
+
+    @Column(name = "ds_nights", nullable = false)
+    private long nights;
+
+    public DailyStat(LocalDate arrival, LocalDate departure, Long categoryId, ReservationStatus status, long reservations) {
+        this.arrival = arrival;
+        this.departure = departure;
+        this.categoryId = categoryId;
+        this.status = status;
+        this.reservations = reservations;
+        this.nights = reservations * Math.max(0, departure.toEpochDay() - arrival.toEpochDay());
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(arrival, departure, categoryId, status);
+    }
+
+    // rows are replaced by deleting and inserting, never updated in place
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate arrival;
+        private LocalDate departure;
+        private Long categoryId;
+        private ReservationStatus status;
+    }
+}
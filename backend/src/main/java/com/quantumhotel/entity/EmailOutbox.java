@@ -0,0 +1,56 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_due", columnList = "eml_status, eml_next_attempt")
+)
+@Getter
+@Setter
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "eml_id")
+    private Long id;
+
+    @Column(name = "eml_to", nullable = false)
+    private String recipient;
+
+    @Column(name = "eml_reply_to")
+    private String replyTo;
+
+    @Column(name = "eml_subject", nullable = false)
+    private String subject;
+
+    @Column(name = "eml_body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "eml_html", nullable = false)
+    private boolean html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "eml_status", nullable = false, length = 16)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(name = "eml_attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "eml_next_attempt", nullable = false)
+    private Instant nextAttemptAt = Instant.now();
+
+    @Column(name = "eml_created", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "eml_sent")
+    private Instant sentAt;
+
+    @Column(name = "eml_last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,7 @@
+package com.quantumhotel.entity;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
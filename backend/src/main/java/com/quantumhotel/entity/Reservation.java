@@ -4,6 +4,7 @@ import com.quantumhotel.users.User;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -12,7 +13,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "reservation")
+@Table(
+        name = "reservation",
+        indexes = {
+                // admin listing: keyset on (res_created, res_id), optionally narrowed by a filter
+                @Index(name = "idx_reservation_created", columnList = "res_created, res_id"),
+                @Index(name = "idx_reservation_status_created", columnList = "res_status, res_created, res_id"),
+                @Index(name = "idx_reservation_category_created", columnList = "cat_id, res_created, res_id"),
+                @Index(name = "idx_reservation_user_created", columnList = "usr_id, res_created, res_id"),
+                // statistics rollup, recomputed per arrival day
+                @Index(name = "idx_reservation_dates", columnList = "res_date_from, res_date_to"),
+                // overlap checks
+                @Index(name = "idx_reservation_unit_dates", columnList = "un_id, res_date_from, res_date_to")
+        }
+)
 @Getter
 @Setter
 public class Reservation{
@@ -21,6 +35,12 @@ public class Reservation{
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "res_id")
     private Long id;
+
+    // default so ddl-auto can add the column to existing rows
+    @Version
+    @Column(name = "res_version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @Column(name = "res_date_from", nullable = false)
     private LocalDate dateFrom;
 
@@ -54,6 +74,7 @@ public class Reservation{
     private AccommodationUnit unit;
 
     //amenities
+    @BatchSize(size = 50)
     @OneToMany(
             mappedBy = "reservation",
             cascade = CascadeType.ALL,
@@ -10,8 +10,10 @@ import lombok.Setter;
 @Setter
 public class ReservationAmenity {
 
+    // sequence ids can be handed out before the insert, so the rows go to the database in one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_amenities_seq")
+    @SequenceGenerator(name = "reservation_amenities_seq", sequenceName = "reservation_amenities_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -24,4 +26,4 @@ public class ReservationAmenity {
 
     private int quantity;
     // Optionally: usage count, price, etc.
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One night of a CONFIRMED reservation. The primary key (un_id, night) makes
+ * the database reject a second confirmed stay on the same unit and night.
+ */
+@Entity
+@Table(
+        name = "unit_night",
+        indexes = @Index(name = "idx_unit_night_res", columnList = "res_id")
+)
+@IdClass(UnitNight.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class UnitNight implements Persistable<UnitNight.Key> {
+
+    @Id
+    @Column(name = "un_id")
+    private Long unitId;
+
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+
+    @Column(name = "res_id", nullable = false)
+    private Long reservationId;
+
+    public UnitNight(Long unitId, LocalDate night, Long reservationId) {
+        this.unitId = unitId;
+        this.night = night;
+        this.reservationId = reservationId;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(unitId, night);
+    }
+
+    // rows are only ever inserted or deleted, so save() never has to look them up first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long unitId;
+        private LocalDate night;
+    }
+}
@@ -0,0 +1,37 @@
+package com.quantumhotel.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A confirmed reservation from before the night ledger whose nights were,
+ * at least partly, already taken by another stay when it was backfilled.
+ * Kept so the overlap stays on record and the backfill does not pick the
+ * reservation up again on every startup.
+ */
+@Entity
+@Table(name = "unit_night_conflict")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UnitNightConflict {
+
+    @Id
+    @Column(name = "res_id")
+    private Long reservationId;
+
+    @Column(name = "unc_skipped_nights", nullable = false)
+    private int skippedNights;
+
+    @Column(name = "unc_recorded", nullable = false)
+    private Instant recordedAt = Instant.now();
+
+    public UnitNightConflict(Long reservationId, int skippedNights) {
+        this.reservationId = reservationId;
+        this.skippedNights = skippedNights;
+    }
+}
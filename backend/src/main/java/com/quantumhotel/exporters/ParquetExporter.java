@@ -0,0 +1,302 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.repository.ReservationFactRow;
+import com.quantumhotel.services.StatisticsService;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkPageWriteStore;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Types;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.xerial.snappy.Snappy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+
+/**
+ * The reservations of a range as a Parquet fact table for the analytics
+ * warehouse, one row per reservation: stay, room, price, add-on revenue and
+ * the guest's demographics. Rows are written as the database cursor hands
+ * them over and a row group goes to the stream once it has buffered
+ * {@code app.statistics.parquet.row-group-size}, so that is about the most
+ * memory an export holds.
+ * <p>
+ * Amounts are DECIMAL(18,5), the scale of the price columns, so no cent is
+ * rounded away. Status, category and the guest's city, gender and age group
+ * are dictionary encoded. Pages are Snappy compressed.
+ * <p>
+ * The file is written with parquet-hadoop's low-level writer, which needs
+ * none of Hadoop at runtime (ParquetWriter would).
+ */
+@Component
+public class ParquetExporter {
+
+    // the scale of cat_price and amn_price
+    static final int MONEY_SCALE = 5;
+
+    static final MessageType SCHEMA = Types.buildMessage()
+            .required(INT64).named("reservation_id")
+            .required(INT32).as(LogicalTypeAnnotation.dateType()).named("arrival")
+            .required(INT32).as(LogicalTypeAnnotation.dateType()).named("departure")
+            .required(INT32).named("nights")
+            .required(BINARY).as(LogicalTypeAnnotation.stringType()).named("status")
+            .optional(INT64).as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS))
+            .named("booked_at")
+            .required(BINARY).as(LogicalTypeAnnotation.stringType()).named("category")
+            .required(INT32).named("room")
+            .optional(INT64).as(LogicalTypeAnnotation.decimalType(MONEY_SCALE, 18)).named("price_per_night")
+            .optional(INT64).as(LogicalTypeAnnotation.decimalType(MONEY_SCALE, 18)).named("room_revenue")
+            .required(INT64).named("amenity_quantity")
+            .required(INT64).as(LogicalTypeAnnotation.decimalType(MONEY_SCALE, 18)).named("amenity_revenue")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("guest_city")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("guest_gender")
+            .optional(INT32).named("guest_age")
+            .optional(BINARY).as(LogicalTypeAnnotation.stringType()).named("guest_age_group")
+            .named("reservation_fact");
+
+    // dictionaries only where a handful of values repeat, ids and amounts would fall back to plain anyway
+    private static final ParquetProperties PROPERTIES = ParquetProperties.builder()
+            .withDictionaryEncoding(false)
+            .withDictionaryEncoding("status", true)
+            .withDictionaryEncoding("category", true)
+            .withDictionaryEncoding("guest_city", true)
+            .withDictionaryEncoding("guest_gender", true)
+            .withDictionaryEncoding("guest_age_group", true)
+            .build();
+
+    private static final MessageColumnIO COLUMN_IO = new ColumnIOFactory().getColumnIO(SCHEMA);
+
+    private static final CompressionCodecFactory.BytesInputCompressor SNAPPY =
+            new CompressionCodecFactory.BytesInputCompressor() {
+                @Override
+                public BytesInput compress(BytesInput bytes) throws IOException {
+                    ByteArrayOutputStream page = new ByteArrayOutputStream((int) bytes.size());
+                    bytes.writeAllTo(page);
+                    return BytesInput.from(Snappy.compress(page.toByteArray()));
+                }
+
+                @Override
+                public CompressionCodecName getCodecName() {
+                    return CompressionCodecName.SNAPPY;
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+
+    private final long rowGroupSize;
+
+    public ParquetExporter(@Value("${app.statistics.parquet.row-group-size:64MB}") DataSize rowGroupSize) {
+        this.rowGroupSize = rowGroupSize.toBytes();
+    }
+
+    public void export(ReservationFacts facts, OutputStream out) throws IOException {
+        ParquetFileWriter file = new ParquetFileWriter(new StreamOutputFile(out), SCHEMA,
+                ParquetFileWriter.Mode.CREATE, rowGroupSize, 0, null, PROPERTIES);
+        file.start();
+        RowGroup[] group = {new RowGroup()};
+        try {
+            facts.forEach(r -> {
+                group[0].write(r);
+                if (group[0].bufferedSize() >= rowGroupSize) {
+                    group[0].flushTo(file);
+                    group[0] = new RowGroup();
+                }
+            });
+            if (group[0].rows > 0) {
+                group[0].flushTo(file);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        file.end(Map.of());
+    }
+
+    // unscaled at MONEY_SCALE, exact for every amount the price columns can hold
+    static long unscaled(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE).unscaledValue().longValueExact();
+    }
+
+    // the columns of the rows written since the last row group
+    private static final class RowGroup {
+
+        private final ColumnChunkPageWriteStore pages = new ColumnChunkPageWriteStore(SNAPPY, SCHEMA,
+                new HeapByteBufferAllocator(), PROPERTIES.getColumnIndexTruncateLength());
+        private final ColumnWriteStore columns = PROPERTIES.newColumnWriteStore(SCHEMA, pages);
+        private final RecordConsumer record = COLUMN_IO.getRecordWriter(columns);
+        private int field;
+        private long rows;
+
+        // in the order of SCHEMA
+        void write(ReservationFactRow r) {
+            long nights = ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo());
+            Integer age = r.dateOfBirth() != null ? Period.between(r.dateOfBirth(), r.dateFrom()).getYears() : null;
+            record.startMessage();
+            field = 0;
+            int64(r.id());
+            int32((int) r.dateFrom().toEpochDay());
+            int32((int) r.dateTo().toEpochDay());
+            int32((int) nights);
+            string(r.status().name());
+            int64(r.createdAt() != null ? r.createdAt().toEpochMilli() : null);
+            string(r.categoryName());
+            int32(r.unitNumber());
+            decimal(r.categoryPrice());
+            decimal(r.categoryPrice() != null ? r.categoryPrice().multiply(BigDecimal.valueOf(nights)) : null);
+            int64(r.amenityQuantity() != null ? r.amenityQuantity() : 0L);
+            decimal(r.amenityRevenue() != null ? r.amenityRevenue() : BigDecimal.ZERO);
+            string(r.city());
+            string(r.gender() != null ? r.gender().name() : null);
+            int32(age);
+            string(age != null ? StatisticsService.getAgeGroup(age) : null);
+            record.endMessage();
+            rows++;
+        }
+
+        long bufferedSize() {
+            return columns.getBufferedSize();
+        }
+
+        void flushTo(ParquetFileWriter file) {
+            try {
+                file.startBlock(rows);
+                columns.flush();
+                pages.flushToFileWriter(file);
+                file.endBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            columns.close();
+            pages.close();
+        }
+
+        // a null value is left out, which makes it null in an optional column
+        private void int64(Long value) {
+            if (value != null) {
+                start();
+                record.addLong(value);
+                end();
+            }
+            field++;
+        }
+
+        private void int32(Integer value) {
+            if (value != null) {
+                start();
+                record.addInteger(value);
+                end();
+            }
+            field++;
+        }
+
+        private void string(String value) {
+            if (value != null) {
+                start();
+                record.addBinary(Binary.fromString(value));
+                end();
+            }
+            field++;
+        }
+
+        private void decimal(BigDecimal value) {
+            int64(value != null ? unscaled(value) : null);
+        }
+
+        private void start() {
+            record.startField(SCHEMA.getFieldName(field), field);
+        }
+
+        private void end() {
+            record.endField(SCHEMA.getFieldName(field), field);
+        }
+    }
+
+    /*
+     * The response stream as a Parquet output file. Parquet closes its file
+     * at the end; that only flushes here, the stream belongs to the caller.
+     */
+    private static final class StreamOutputFile implements OutputFile {
+
+        private final OutputStream out;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    buffered.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    buffered.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    buffered.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    buffered.flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import java.text.DecimalFormat;
 
@@ -15,13 +16,14 @@ import java.text.DecimalFormat;
 import java.awt.*;
 
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 
 
 @Component
-public class PdfExporter {
+public class PdfExporter implements StatisticsExporter {
     private static final DecimalFormat MONEY_FORMAT = new DecimalFormat("#,##0.00");
 
     private Font TITLE_FONT;
@@ -42,10 +44,31 @@ public class PdfExporter {
         BOLD_FONT = new Font(baseFont, 10, Font.BOLD, BaseColor.BLACK);
     }
 
-    public byte[] export(HotelStatisticsDTO statistics) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    @Override
+    public String format() {
+        return "pdf";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MediaType.APPLICATION_PDF;
+    }
+
+    // the report only, a PDF does not list the reservations
+    @Override
+    public void export(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out)
+            throws IOException {
+        try {
+            write(statistics, out);
+        } catch (DocumentException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void write(HotelStatisticsDTO statistics, OutputStream out) throws DocumentException {
         Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, outputStream);
+        // the stream belongs to the caller, closing the document must not close it
+        PdfWriter.getInstance(document, out).setCloseStream(false);
 
         document.open();
 
@@ -150,7 +173,6 @@ public class PdfExporter {
         }
 
         document.close();
-        return outputStream.toByteArray();
     }
 
     private void addSectionHeader(Document document, String text) throws DocumentException {
@@ -0,0 +1,12 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.repository.ReservationFactRow;
+
+import java.util.function.Consumer;
+
+// the reservations of an exported range as fact rows, one per reservation
+@FunctionalInterface
+public interface ReservationFacts {
+
+    void forEach(Consumer<ReservationFactRow> action);
+}
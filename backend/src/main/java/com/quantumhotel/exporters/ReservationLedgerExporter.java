@@ -0,0 +1,183 @@
+package com.quantumhotel.exporters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.quantumhotel.repository.ReservationLineRow;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every reservation of a range with its add-on lines, for finance, written
+ * row by row as the database cursor hands them over. Only the reservation
+ * being written is held, so memory does not depend on the size of the range.
+ * <ul>
+ *   <li>CSV: a ledger with a {@code room} line (nights at the category
+ *   price) and an {@code amenity} line per add-on for every reservation;
+ *   the amounts add up to the revenue.</li>
+ *   <li>NDJSON: one JSON object per reservation with its add-ons nested.</li>
+ * </ul>
+ */
+@Component
+public class ReservationLedgerExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final String CSV_HEADER = "reservation_id,arrival,departure,status,booked_at,guest,email,city,"
+            + "category,room,line,item,quantity,unit_price,amount";
+
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator("\n");
+
+    public void writeCsv(ReservationLines lines, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        Long[] previous = {null};
+        try {
+            lines.forEach(r -> {
+                try {
+                    if (!r.id().equals(previous[0])) {
+                        long nights = ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo());
+                        writeCsvLine(writer, r, "room", r.categoryName(), nights, r.categoryPrice());
+                        previous[0] = r.id();
+                    }
+                    if (r.lineId() != null) {
+                        writeCsvLine(writer, r, "amenity", r.amenityName(), r.quantity(), r.amenityPrice());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    public void writeNdjson(ReservationLines lines, OutputStream out) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        // the rows of one reservation arrive together, the add-ons are collected until the next one starts
+        List<ReservationLineRow> current = new ArrayList<>();
+        try {
+            lines.forEach(r -> {
+                if (!current.isEmpty() && !current.get(0).id().equals(r.id())) {
+                    writeJsonReservation(json, current);
+                    current.clear();
+                }
+                current.add(r);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!current.isEmpty()) {
+            writeJsonReservation(json, current);
+            json.writeRaw('\n');
+        }
+        json.close();
+    }
+
+    private void writeCsvLine(Writer writer, ReservationLineRow r, String line, String item, long quantity,
+                              BigDecimal unitPrice) throws IOException {
+        writer.write(String.valueOf(r.id()));
+        writer.write(',');
+        writer.write(r.dateFrom().toString());
+        writer.write(',');
+        writer.write(r.dateTo().toString());
+        writer.write(',');
+        writer.write(r.status().name());
+        writer.write(',');
+        writer.write(r.createdAt() != null ? r.createdAt().toString() : "");
+        writer.write(',');
+        writeCsvText(writer, r.username());
+        writer.write(',');
+        writeCsvText(writer, r.email());
+        writer.write(',');
+        writeCsvText(writer, r.city());
+        writer.write(',');
+        writeCsvText(writer, r.categoryName());
+        writer.write(',');
+        writer.write(String.valueOf(r.unitNumber()));
+        writer.write(',');
+        writer.write(line);
+        writer.write(',');
+        writeCsvText(writer, item);
+        writer.write(',');
+        writer.write(String.valueOf(quantity));
+        writer.write(',');
+        writer.write(unitPrice != null ? unitPrice.toPlainString() : "");
+        writer.write(',');
+        writer.write(unitPrice != null ? unitPrice.multiply(BigDecimal.valueOf(quantity)).toPlainString() : "");
+        writer.write('\n');
+    }
+
+    /*
+     * Quotes fields with separators, quotes or line breaks. Text starting like
+     * a formula gets a leading apostrophe so spreadsheets show it instead of
+     * evaluating guest input.
+     */
+    static void writeCsvText(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonReservation(JsonGenerator json, List<ReservationLineRow> rows) {
+        ReservationLineRow r = rows.get(0);
+        try {
+            json.writeStartObject();
+            json.writeNumberField("id", r.id());
+            json.writeStringField("arrival", r.dateFrom().toString());
+            json.writeStringField("departure", r.dateTo().toString());
+            json.writeNumberField("nights", ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo()));
+            json.writeStringField("status", r.status().name());
+            json.writeStringField("bookedAt", r.createdAt() != null ? r.createdAt().toString() : null);
+            json.writeObjectFieldStart("guest");
+            json.writeStringField("username", r.username());
+            json.writeStringField("email", r.email());
+            json.writeStringField("city", r.city());
+            json.writeEndObject();
+            json.writeStringField("category", r.categoryName());
+            json.writeNumberField("room", r.unitNumber());
+            json.writeNumberField("pricePerNight", r.categoryPrice());
+            json.writeArrayFieldStart("amenities");
+            for (ReservationLineRow line : rows) {
+                if (line.lineId() != null) {
+                    json.writeStartObject();
+                    json.writeStringField("name", line.amenityName());
+                    json.writeNumberField("quantity", line.quantity());
+                    json.writeNumberField("price", line.amenityPrice());
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.repository.ReservationLineRow;
+
+import java.util.function.Consumer;
+
+// the reservations of an exported range with their add-on lines, a reservation's rows one after another
+@FunctionalInterface
+public interface ReservationLines {
+
+    void forEach(Consumer<ReservationLineRow> action);
+}
@@ -0,0 +1,12 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.repository.ReservationExportRow;
+
+import java.util.function.Consumer;
+
+// the reservations of an exported range, handed over one at a time while the export is written
+@FunctionalInterface
+public interface ReservationRows {
+
+    void forEach(Consumer<ReservationExportRow> action);
+}
@@ -0,0 +1,29 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A download format of the statistics report. Every exporter bean is picked
+ * up by {@link StatisticsExporters} and served by
+ * {@code /api/statistics/export}, by its format name ({@code ?format=} or the
+ * path) or by its media type ({@code Accept}), alone or in a ZIP bundle.
+ */
+public interface StatisticsExporter {
+
+    // name in ?format= and the file extension
+    String format();
+
+    MediaType mediaType();
+
+    // whether the reservations of the range are listed when the request does not say
+    default boolean listsReservations() {
+        return false;
+    }
+
+    // reservations is null when they are not to be listed
+    void export(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out) throws IOException;
+}
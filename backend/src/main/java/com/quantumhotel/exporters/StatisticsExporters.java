@@ -0,0 +1,173 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Every {@link StatisticsExporter} bean by format name and media type, so a
+ * new format is served as soon as its exporter is a component.
+ * <p>
+ * A ZIP bundle renders its formats side by side from the one report it is
+ * given, on a pool of {@code app.statistics.export-threads} threads, each
+ * into a temporary file. The files go into the ZIP in the order asked for as
+ * they are done, so a bundle takes about as long as its slowest format and
+ * holds none of them in memory.
+ */
+@Component
+public class StatisticsExporters {
+
+    // ?format= for a bundle of every format
+    public static final String BUNDLE = "zip";
+
+    public static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
+    private final Map<String, StatisticsExporter> byFormat = new LinkedHashMap<>();
+    private final ExecutorService executor;
+
+    public StatisticsExporters(
+            List<StatisticsExporter> exporters,
+            @Value("${app.statistics.export-threads:4}") int threads
+    ) {
+        for (StatisticsExporter exporter : exporters) {
+            String format = exporter.format().toLowerCase(Locale.ROOT);
+            if (format.equals(BUNDLE) || byFormat.putIfAbsent(format, exporter) != null) {
+                throw new IllegalStateException("Statistics export format registered twice: " + format);
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "statistics-export-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Collection<StatisticsExporter> all() {
+        return byFormat.values();
+    }
+
+    public Optional<StatisticsExporter> find(String format) {
+        return Optional.ofNullable(byFormat.get(format.toLowerCase(Locale.ROOT)));
+    }
+
+    /*
+     * The format the Accept header prefers, BUNDLE for application/zip.
+     * Wildcards choose nothing, a report has no default format.
+     */
+    public Optional<String> negotiate(List<MediaType> accept) {
+        List<MediaType> preferred = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(preferred);
+        for (MediaType type : preferred) {
+            if (type.getQualityValue() == 0 || type.isWildcardType() || type.isWildcardSubtype()) {
+                continue;
+            }
+            if (type.includes(ZIP)) {
+                return Optional.of(BUNDLE);
+            }
+            for (StatisticsExporter exporter : byFormat.values()) {
+                if (type.includes(exporter.mediaType())) {
+                    return Optional.of(exporter.format());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /*
+     * Writes the exporters' files as a ZIP, each named name plus its
+     * extension. reservations gives each exporter the rows to list, or null.
+     */
+    public void exportZip(HotelStatisticsDTO statistics, List<StatisticsExporter> exporters,
+                          Function<StatisticsExporter, ReservationRows> reservations, String name,
+                          OutputStream out) throws IOException {
+        List<CompletableFuture<Path>> files = new ArrayList<>();
+        for (StatisticsExporter exporter : exporters) {
+            ReservationRows rows = reservations.apply(exporter);
+            files.add(CompletableFuture.supplyAsync(() -> render(exporter, statistics, rows), executor));
+        }
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (int i = 0; i < exporters.size(); i++) {
+                Path file = await(files.get(i));
+                zip.putNextEntry(new ZipEntry(name + "." + exporters.get(i).format()));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+        } finally {
+            // the ones still being written are deleted when they are done
+            for (CompletableFuture<Path> file : files) {
+                file.thenAccept(StatisticsExporters::delete);
+            }
+        }
+    }
+
+    private static Path render(StatisticsExporter exporter, HotelStatisticsDTO statistics, ReservationRows rows) {
+        try {
+            Path file = Files.createTempFile("statistics-", "." + exporter.format());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                exporter.export(statistics, rows, out);
+            } catch (IOException | RuntimeException e) {
+                delete(file);
+                throw e;
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // waits for a rendered file, rethrowing what its exporter threw
+    private static Path await(CompletableFuture<Path> file) throws IOException {
+        try {
+            return file.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Could not delete statistics export file " + file + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,43 +2,87 @@ package com.quantumhotel.exporters;
 
 
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.repository.ReservationExportRow;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
-
+import java.util.function.Consumer;
+
+/**
+ * Writes the statistics workbook straight to the given stream. Only the last
+ * {@link #ROW_WINDOW} rows of each sheet are kept in memory, older ones go
+ * to compressed temporary files, so the Reservations sheet can list every
+ * reservation of the range without the heap growing with it.
+ */
 @Component
-public class XlsxExporter {
+public class XlsxExporter implements StatisticsExporter {
 
-    public byte[] export(HotelStatisticsDTO statistics) throws Exception {
-        Workbook workbook = new XSSFWorkbook();
+    static final MediaType XLSX = MediaType.parseMediaType(
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
 
-        // Create styles
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle numberStyle = createNumberStyle(workbook);
+    static final int ROW_WINDOW = 100;
 
-        // Summary Sheet
-        createSummarySheet(workbook, statistics, headerStyle, titleStyle, currencyStyle, numberStyle);
+    // rows per Reservations sheet including the header, an .xlsx sheet holds no more
+    static final int SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
 
-        // Demographics Sheet
-        createDemographicsSheet(workbook, statistics, headerStyle, titleStyle);
+    @Override
+    public String format() {
+        return "xlsx";
+    }
 
-        // Accommodations Sheet
-        createAccommodationsSheet(workbook, statistics, headerStyle, titleStyle, currencyStyle);
+    @Override
+    public MediaType mediaType() {
+        return XLSX;
+    }
 
-        // Amenities Sheet
-        createAmenitiesSheet(workbook, statistics, headerStyle, titleStyle, currencyStyle);
+    @Override
+    public boolean listsReservations() {
+        return true;
+    }
 
-        // Write to byte array
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
+    // reservations may be null, the Reservations sheet is then left out
+    @Override
+    public void export(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out)
+            throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            // Create styles
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle titleStyle = createTitleStyle(workbook);
+            CellStyle currencyStyle = createCurrencyStyle(workbook);
+            CellStyle numberStyle = createNumberStyle(workbook);
+            CellStyle dateStyle = createDateStyle(workbook);
+
+            // Summary Sheet
+            createSummarySheet(workbook, statistics, headerStyle, titleStyle, currencyStyle, numberStyle);
+
+            // Demographics Sheet
+            createDemographicsSheet(workbook, statistics, headerStyle, titleStyle);
+
+            // Accommodations Sheet
+            createAccommodationsSheet(workbook, statistics, headerStyle, titleStyle, currencyStyle);
+
+            // Amenities Sheet
+            createAmenitiesSheet(workbook, statistics, headerStyle, titleStyle, currencyStyle);
+
+            // Reservations Sheet, continued on further sheets past the row limit
+            if (reservations != null) {
+                reservations.forEach(new ReservationSheets(workbook, headerStyle, currencyStyle, dateStyle));
+            }
 
-        return outputStream.toByteArray();
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
     }
 
     private void createSummarySheet(Workbook workbook, HotelStatisticsDTO statistics,
@@ -215,6 +259,74 @@ public class XlsxExporter {
         }
     }
 
+    private static final class ReservationSheets implements Consumer<ReservationExportRow> {
+
+        private static final String[] HEADERS = {"Reservation ID", "Arrival", "Departure", "Nights", "Status",
+                "Guest", "Email", "City", "Category", "Room", "Price per Night", "Booked At"};
+
+        private final Workbook workbook;
+        private final CellStyle headerStyle;
+        private final CellStyle currencyStyle;
+        private final CellStyle dateStyle;
+        private int sheets;
+        private Sheet sheet;
+        private int rowNum;
+
+        ReservationSheets(Workbook workbook, CellStyle headerStyle, CellStyle currencyStyle, CellStyle dateStyle) {
+            this.workbook = workbook;
+            this.headerStyle = headerStyle;
+            this.currencyStyle = currencyStyle;
+            this.dateStyle = dateStyle;
+            nextSheet();
+        }
+
+        @Override
+        public void accept(ReservationExportRow r) {
+            if (rowNum == SHEET_ROWS) {
+                nextSheet();
+            }
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(r.id());
+            Cell arrival = row.createCell(1);
+            arrival.setCellValue(r.dateFrom());
+            arrival.setCellStyle(dateStyle);
+            Cell departure = row.createCell(2);
+            departure.setCellValue(r.dateTo());
+            departure.setCellStyle(dateStyle);
+            row.createCell(3).setCellValue(ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo()));
+            row.createCell(4).setCellValue(r.status().name());
+            row.createCell(5).setCellValue(r.username());
+            row.createCell(6).setCellValue(r.email());
+            row.createCell(7).setCellValue(r.city());
+            row.createCell(8).setCellValue(r.categoryName());
+            row.createCell(9).setCellValue(r.unitNumber());
+            // categories may have no price, the cell is left blank then
+            Cell price = row.createCell(10);
+            if (r.categoryPrice() != null) {
+                price.setCellValue(r.categoryPrice().doubleValue());
+            }
+            price.setCellStyle(currencyStyle);
+            row.createCell(11).setCellValue(r.createdAt() != null ? r.createdAt().toString() : null);
+        }
+
+        private void nextSheet() {
+            sheets++;
+            sheet = workbook.createSheet(sheets == 1 ? "Reservations" : "Reservations " + sheets);
+            sheet.setColumnWidth(5, 5000);
+            sheet.setColumnWidth(6, 7000);
+            sheet.setColumnWidth(8, 5000);
+            sheet.setColumnWidth(11, 6000);
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            rowNum = 1;
+        }
+    }
+
     private int addDemographicSection(Sheet sheet, int startRow, String sectionTitle,
                                       Map<String, Integer> data, CellStyle headerStyle) {
         // Section title
@@ -277,6 +389,13 @@ public class XlsxExporter {
         return style;
     }
 
+    private CellStyle createDateStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        DataFormat format = workbook.createDataFormat();
+        style.setDataFormat(format.getFormat("yyyy-mm-dd"));
+        return style;
+    }
+
     private CellStyle createNumberStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         DataFormat format = workbook.createDataFormat();
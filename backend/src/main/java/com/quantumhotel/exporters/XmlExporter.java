@@ -1,129 +1,218 @@
 package com.quantumhotel.exporters;
 
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.repository.ReservationExportRow;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.ByteArrayOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
+/**
+ * Writes the HotelStatistics document element by element to the given
+ * stream, indented by two spaces. Nothing but the current element is held in
+ * memory, so the optional Reservations section can list every reservation of
+ * the range as it comes from the database.
+ */
 @Component
-public class XmlExporter {
-
-    public byte[] export(HotelStatisticsDTO statistics) throws Exception {
-        DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        // Root element
-        Element rootElement = doc.createElement("HotelStatistics");
-        doc.appendChild(rootElement);
+public class XmlExporter implements StatisticsExporter {
 
-        // Period
-        Element period = doc.createElement("Period");
-        rootElement.appendChild(period);
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
 
-        Element startDate = doc.createElement("StartDate");
-        startDate.setTextContent(statistics.getStartDate().toString());
-        period.appendChild(startDate);
+    @Override
+    public String format() {
+        return "xml";
+    }
 
-        Element endDate = doc.createElement("EndDate");
-        endDate.setTextContent(statistics.getEndDate().toString());
-        period.appendChild(endDate);
+    @Override
+    public MediaType mediaType() {
+        return MediaType.APPLICATION_XML;
+    }
 
-        // Summary
-        Element summary = doc.createElement("Summary");
-        rootElement.appendChild(summary);
+    // reservations may be null, the Reservations section is then left out
+    @Override
+    public void export(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out)
+            throws IOException {
+        try {
+            write(statistics, reservations, out);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
 
-        addElement(doc, summary, "TotalReservations", String.valueOf(statistics.getTotalReservations()));
-        addElement(doc, summary, "CompletedReservations", String.valueOf(statistics.getCompletedReservations()));
-        addElement(doc, summary, "CancelledReservations", String.valueOf(statistics.getCancelledReservations()));
-        addElement(doc, summary, "TotalRevenue", statistics.getTotalRevenue().toString());
-        addElement(doc, summary, "AverageStayDuration", statistics.getAverageStayDuration().toString());
+    private void write(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out)
+            throws XMLStreamException {
+        Writer xml = new Writer(outputFactory.createXMLStreamWriter(out, StandardCharsets.UTF_8.name()));
+        xml.writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
 
-        // Demographics
-        Element demographics = doc.createElement("Demographics");
-        rootElement.appendChild(demographics);
+        // Root element
+        xml.start("HotelStatistics");
 
-        // By City
-        Element byCity = doc.createElement("ByCity");
-        demographics.appendChild(byCity);
-        addMapElements(doc, byCity, statistics.getReservationsByCity(), "City");
+        // Period
+        xml.start("Period");
+        xml.element("StartDate", String.valueOf(statistics.getStartDate()));
+        xml.element("EndDate", String.valueOf(statistics.getEndDate()));
+        xml.end();
 
-        // By Gender
-        Element byGender = doc.createElement("ByGender");
-        demographics.appendChild(byGender);
-        addMapElements(doc, byGender, statistics.getReservationsByGender(), "Gender");
+        // Summary
+        xml.start("Summary");
+        xml.element("TotalReservations", String.valueOf(statistics.getTotalReservations()));
+        xml.element("CompletedReservations", String.valueOf(statistics.getCompletedReservations()));
+        xml.element("CancelledReservations", String.valueOf(statistics.getCancelledReservations()));
+        xml.element("TotalRevenue", statistics.getTotalRevenue().toString());
+        xml.element("AverageStayDuration", statistics.getAverageStayDuration().toString());
+        xml.end();
 
-        // By Age Group
-        Element byAge = doc.createElement("ByAgeGroup");
-        demographics.appendChild(byAge);
-        addMapElements(doc, byAge, statistics.getReservationsByAgeGroup(), "AgeGroup");
+        // Demographics
+        xml.start("Demographics");
+        addMapElements(xml, "ByCity", statistics.getReservationsByCity(), "City");
+        addMapElements(xml, "ByGender", statistics.getReservationsByGender(), "Gender");
+        addMapElements(xml, "ByAgeGroup", statistics.getReservationsByAgeGroup(), "AgeGroup");
+        xml.end();
 
         // Top Accommodations
-        Element accommodations = doc.createElement("TopAccommodations");
-        rootElement.appendChild(accommodations);
-
+        xml.start("TopAccommodations");
         if (statistics.getTopAccommodations() != null) {
             for (HotelStatisticsDTO.AccommodationStats acc : statistics.getTopAccommodations()) {
-                Element accommodation = doc.createElement("Accommodation");
-                addElement(doc, accommodation, "CategoryName", acc.getCategoryName());
-                addElement(doc, accommodation, "ReservationCount", String.valueOf(acc.getReservationCount()));
-                addElement(doc, accommodation, "TotalRevenue", acc.getTotalRevenue().toString());
-                accommodations.appendChild(accommodation);
+                xml.start("Accommodation");
+                xml.element("CategoryName", acc.getCategoryName());
+                xml.element("ReservationCount", String.valueOf(acc.getReservationCount()));
+                xml.element("TotalRevenue", acc.getTotalRevenue().toString());
+                xml.end();
             }
         }
+        xml.end();
 
         // Popular Amenities
-        Element amenities = doc.createElement("PopularAmenities");
-        rootElement.appendChild(amenities);
-
+        xml.start("PopularAmenities");
         if (statistics.getPopularAmenities() != null) {
             for (HotelStatisticsDTO.AmenityStats amenity : statistics.getPopularAmenities()) {
-                Element amenityElement = doc.createElement("Amenity");
-                addElement(doc, amenityElement, "AmenityName", amenity.getAmenityName());
-                addElement(doc, amenityElement, "UsageCount", String.valueOf(amenity.getUsageCount()));
-                addElement(doc, amenityElement, "TotalRevenue", amenity.getTotalRevenue().toString());
-                amenities.appendChild(amenityElement);
+                xml.start("Amenity");
+                xml.element("AmenityName", amenity.getAmenityName());
+                xml.element("UsageCount", String.valueOf(amenity.getUsageCount()));
+                xml.element("TotalRevenue", amenity.getTotalRevenue().toString());
+                xml.end();
             }
         }
+        xml.end();
+
+        // Reservations, written while the rows are read
+        if (reservations != null) {
+            xml.start("Reservations");
+            try {
+                reservations.forEach(r -> {
+                    try {
+                        addReservation(xml, r);
+                    } catch (XMLStreamException e) {
+                        throw new UncheckedXmlException(e);
+                    }
+                });
+            } catch (UncheckedXmlException e) {
+                throw e.getCause();
+            }
+            xml.end();
+        }
 
-        // Write to byte array
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(outputStream);
-        transformer.transform(source, result);
-
-        return outputStream.toByteArray();
+        xml.end();
+        xml.writer.writeEndDocument();
+        xml.writer.flush();
+        xml.writer.close();
     }
 
-    private void addElement(Document doc, Element parent, String name, String value) {
-        Element element = doc.createElement(name);
-        element.setTextContent(value != null ? value : "");
-        parent.appendChild(element);
+    private void addReservation(Writer xml, ReservationExportRow r) throws XMLStreamException {
+        xml.start("Reservation");
+        xml.writer.writeAttribute("id", String.valueOf(r.id()));
+        xml.element("Arrival", r.dateFrom().toString());
+        xml.element("Departure", r.dateTo().toString());
+        xml.element("Nights", String.valueOf(ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo())));
+        xml.element("Status", r.status().name());
+        xml.element("Guest", r.username());
+        xml.element("Email", r.email());
+        xml.element("City", r.city());
+        xml.element("Category", r.categoryName());
+        xml.element("Room", String.valueOf(r.unitNumber()));
+        xml.element("PricePerNight", r.categoryPrice() != null ? r.categoryPrice().toPlainString() : null);
+        xml.element("BookedAt", r.createdAt() != null ? r.createdAt().toString() : null);
+        xml.end();
     }
 
-    private void addMapElements(Document doc, Element parent, Map<String, Integer> map, String elementName) {
+    private void addMapElements(Writer xml, String parent, Map<String, Integer> map, String elementName)
+            throws XMLStreamException {
+        xml.start(parent);
         if (map != null) {
             for (Map.Entry<String, Integer> entry : map.entrySet()) {
-                Element element = doc.createElement(elementName);
-                element.setAttribute("name", entry.getKey());
-                element.setAttribute("count", String.valueOf(entry.getValue()));
-                parent.appendChild(element);
+                xml.empty(elementName);
+                xml.writer.writeAttribute("name", entry.getKey());
+                xml.writer.writeAttribute("count", String.valueOf(entry.getValue()));
             }
         }
+        xml.end();
+    }
+
+    // XMLStreamWriter does not indent, this keeps the two-space layout of the old DOM output
+    private static final class Writer {
+
+        final XMLStreamWriter writer;
+        private int depth;
+        private boolean hasChildren;
+
+        Writer(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        void start(String name) throws XMLStreamException {
+            newLine();
+            writer.writeStartElement(name);
+            depth++;
+            hasChildren = false;
+        }
+
+        void end() throws XMLStreamException {
+            depth--;
+            if (hasChildren) {
+                newLine();
+            }
+            writer.writeEndElement();
+            hasChildren = true;
+        }
+
+        void empty(String name) throws XMLStreamException {
+            newLine();
+            writer.writeEmptyElement(name);
+            hasChildren = true;
+        }
+
+        void element(String name, String value) throws XMLStreamException {
+            newLine();
+            writer.writeStartElement(name);
+            writer.writeCharacters(value != null ? value : "");
+            writer.writeEndElement();
+            hasChildren = true;
+        }
+
+        void newLine() throws XMLStreamException {
+            writer.writeCharacters("\n");
+            for (int i = 0; i < depth; i++) {
+                writer.writeCharacters("  ");
+            }
+        }
+    }
+
+    // carries a write failure out of the row callback
+    private static final class UncheckedXmlException extends RuntimeException {
+        UncheckedXmlException(XMLStreamException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized XMLStreamException getCause() {
+            return (XMLStreamException) super.getCause();
+        }
     }
-}
\ No newline at end of file
+}
@@ -14,7 +14,7 @@ public interface AccommodationCategoryRepository extends JpaRepository<Accommoda
     @Query("""
    SELECT c.name,
           COUNT(r.id) AS reservation_count,
-          SUM(c.price * datediff(day, r.dateFrom, r.dateTo)) AS total_revenue
+          SUM(c.price * ((r.dateTo - r.dateFrom) by day)) AS total_revenue
    FROM Reservation r
    JOIN AccommodationCategory c ON r.category.id = c.id
    WHERE r.dateFrom >= :startDate
@@ -43,4 +43,28 @@ public interface AccommodationCategoryRepository extends JpaRepository<Accommoda
             @Param("to") LocalDate to,
             @Param("persons") Integer persons
     );
+
+    // category id, name, units (same unit join as findAvailableCategories)
+    @Query("""
+    SELECT c.id, c.name, COUNT(u.id)
+    FROM AccommodationCategory c
+    JOIN AccommodationUnit u ON u.category.id = c.id
+    WHERE c.capacity >= :persons
+    GROUP BY c.id, c.name
+    ORDER BY c.id
+""")
+    List<Object[]> countUnitsPerCategory(@Param("persons") Integer persons);
+
+    // category id, dateFrom, dateTo of every CONFIRMED stay touching [from, to)
+    @Query("""
+    SELECT u.category.id, r.dateFrom, r.dateTo
+    FROM Reservation r
+    JOIN r.unit u
+    WHERE r.status = 'CONFIRMED'
+    AND NOT (r.dateTo <= :from OR r.dateFrom >= :to)
+""")
+    List<Object[]> findConfirmedStaysBetween(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
 }
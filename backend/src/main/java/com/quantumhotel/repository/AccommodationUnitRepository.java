@@ -1,12 +1,55 @@
 package com.quantumhotel.repository;
 
 import com.quantumhotel.entity.AccommodationUnit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccommodationUnitRepository extends JpaRepository<AccommodationUnit, Long> {
     List<AccommodationUnit> findByCategoryId(Long categoryId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM AccommodationUnit u WHERE u.id = :id")
+    Optional<AccommodationUnit> lockById(@Param("id") Long id);
+
+    @Query("SELECT u.id, u.category.id FROM AccommodationUnit u")
+    List<Object[]> findUnitCategoryIds();
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2): concurrent callers each get a different unit.
+    // Units without overlapping PENDING requests come first, so bookings spread over the category.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+    SELECT u FROM AccommodationUnit u
+    WHERE u.category.id = :categoryId
+    AND NOT EXISTS (
+        SELECT r FROM Reservation r
+        WHERE r.unit.id = u.id
+        AND r.status = 'CONFIRMED'
+        AND NOT (r.dateTo <= :from OR r.dateFrom >= :to)
+    )
+    ORDER BY (
+        SELECT COUNT(p) FROM Reservation p
+        WHERE p.unit.id = u.id
+        AND p.status = 'PENDING'
+        AND NOT (p.dateTo <= :from OR p.dateFrom >= :to)
+    ), u.id
+""")
+    List<AccommodationUnit> lockFreeUnits(
+            @Param("categoryId") Long categoryId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,41 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.DailyAmenityStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyAmenityStatRepository extends JpaRepository<DailyAmenityStat, DailyAmenityStat.Key> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DailyAmenityStat s WHERE s.arrival >= :first AND s.arrival <= :last")
+    int deleteArrivals(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // arrival, departure, amenity id, quantity
+    @Query("""
+        SELECT r.dateFrom, r.dateTo, ra.amenity.id, SUM(ra.quantity)
+        FROM ReservationAmenity ra
+        JOIN ra.reservation r
+        WHERE r.status = 'CONFIRMED'
+          AND r.dateFrom >= :first AND r.dateFrom <= :last
+        GROUP BY r.dateFrom, r.dateTo, ra.amenity.id
+        """)
+    List<Object[]> aggregateConfirmedAmenities(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // amenity name, quantity, revenue at today's price
+    @Query("""
+        SELECT a.name, SUM(s.quantity), SUM(s.quantity * a.price)
+        FROM DailyAmenityStat s, Amenity a
+        WHERE a.id = s.amenityId
+          AND s.arrival >= :startDate AND s.departure <= :endDate
+        GROUP BY a.id, a.name
+        ORDER BY SUM(s.quantity) DESC
+        """)
+    List<Object[]> sumByAmenity(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
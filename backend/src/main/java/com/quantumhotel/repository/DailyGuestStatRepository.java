@@ -0,0 +1,38 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.DailyGuestStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyGuestStatRepository extends JpaRepository<DailyGuestStat, DailyGuestStat.Key> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DailyGuestStat s WHERE s.arrival >= :first AND s.arrival <= :last")
+    int deleteArrivals(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // arrival, departure, city, gender, date of birth, reservations
+    @Query("""
+        SELECT r.dateFrom, r.dateTo, u.city, u.gender, u.dateOfBirth, COUNT(r)
+        FROM Reservation r
+        JOIN r.user u
+        WHERE r.dateFrom >= :first AND r.dateFrom <= :last
+        GROUP BY r.dateFrom, r.dateTo, u.city, u.gender, u.dateOfBirth
+        """)
+    List<Object[]> aggregateGuests(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // dimension, value, reservations
+    @Query("""
+        SELECT s.dimension, s.value, SUM(s.reservations)
+        FROM DailyGuestStat s
+        WHERE s.arrival >= :startDate AND s.departure <= :endDate
+        GROUP BY s.dimension, s.value
+        """)
+    List<Object[]> sumByDimension(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,53 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.DailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyStatRepository extends JpaRepository<DailyStat, DailyStat.Key> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DailyStat s WHERE s.arrival >= :first AND s.arrival <= :last")
+    int deleteArrivals(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // first and last arrival of any reservation, both null when there are none
+    @Query("SELECT MIN(r.dateFrom), MAX(r.dateFrom) FROM Reservation r")
+    List<Object[]> findArrivalBounds();
+
+    // arrival, departure, category id, status, reservations
+    @Query("""
+        SELECT r.dateFrom, r.dateTo, r.category.id, r.status, COUNT(r)
+        FROM Reservation r
+        WHERE r.dateFrom >= :first AND r.dateFrom <= :last
+        GROUP BY r.dateFrom, r.dateTo, r.category.id, r.status
+        """)
+    List<Object[]> aggregateReservations(@Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    // status, reservations, nights
+    @Query("""
+        SELECT s.status, SUM(s.reservations), SUM(s.nights)
+        FROM DailyStat s
+        WHERE s.arrival >= :startDate AND s.departure <= :endDate
+        GROUP BY s.status
+        """)
+    List<Object[]> sumByStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // category name, confirmed reservations, room revenue at today's price
+    @Query("""
+        SELECT c.name, SUM(s.reservations), SUM(s.nights * c.price)
+        FROM DailyStat s, AccommodationCategory c
+        WHERE c.id = s.categoryId
+          AND s.status = com.quantumhotel.entity.ReservationStatus.CONFIRMED
+          AND s.arrival >= :startDate AND s.departure <= :endDate
+        GROUP BY c.id, c.name
+        ORDER BY SUM(s.reservations) DESC
+        """)
+    List<Object[]> sumConfirmedByCategory(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
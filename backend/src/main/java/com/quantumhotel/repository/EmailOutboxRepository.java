@@ -0,0 +1,49 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.EmailOutbox;
+import com.quantumhotel.entity.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // FOR UPDATE SKIP LOCKED: several dispatchers never claim the same message
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT e FROM EmailOutbox e
+        WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now
+        ORDER BY e.nextAttemptAt, e.id
+        """)
+    List<EmailOutbox> lockDue(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("""
+        UPDATE EmailOutbox e
+        SET e.status = 'SENT', e.sentAt = :now, e.lastError = null
+        WHERE e.id IN :ids
+        """)
+    int markSent(@Param("ids") List<Long> ids, @Param("now") Instant now);
+
+    // sent and dead messages still hold their body, reset and verification links included
+    @Modifying
+    @Query("""
+        DELETE FROM EmailOutbox e
+        WHERE e.status IN ('SENT', 'DEAD') AND e.createdAt < :cutoff
+        """)
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+
+    long countByStatus(EmailOutboxStatus status);
+}
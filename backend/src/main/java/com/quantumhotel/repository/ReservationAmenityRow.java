@@ -0,0 +1,13 @@
+package com.quantumhotel.repository;
+
+import java.math.BigDecimal;
+
+public record ReservationAmenityRow(
+        Long reservationId,
+        Long id,
+        Long amenityId,
+        String name,
+        int quantity,
+        BigDecimal price
+) {
+}
@@ -0,0 +1,24 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.users.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// columns ReservationDetailsDTO shows; the two users are needed whole for UserDto
+public record ReservationDetailsRow(
+        Long id,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        ReservationStatus status,
+        Instant createdAt,
+        Instant processedAt,
+        User user,
+        User processedBy,
+        String categoryName,
+        BigDecimal categoryPrice,
+        Integer unitNumber
+) {
+}
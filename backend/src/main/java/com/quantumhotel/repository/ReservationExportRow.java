@@ -0,0 +1,23 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// one line of the reservation detail exports, streamed without managing any entity
+public record ReservationExportRow(
+        Long id,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        ReservationStatus status,
+        Instant createdAt,
+        String username,
+        String email,
+        String city,
+        String categoryName,
+        BigDecimal categoryPrice,
+        Integer unitNumber
+) {
+}
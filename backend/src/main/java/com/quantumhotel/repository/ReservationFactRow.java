@@ -0,0 +1,26 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.users.Gender;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// a reservation with its add-ons summed up (amenityQuantity and amenityRevenue are null when it has none)
+public record ReservationFactRow(
+        Long id,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        ReservationStatus status,
+        Instant createdAt,
+        String categoryName,
+        BigDecimal categoryPrice,
+        Integer unitNumber,
+        String city,
+        Gender gender,
+        LocalDate dateOfBirth,
+        Long amenityQuantity,
+        BigDecimal amenityRevenue
+) {
+}
@@ -0,0 +1,11 @@
+package com.quantumhotel.repository;
+
+import java.time.Instant;
+
+// the keyset columns of a reservation, what a page of the admin listing is picked by
+public interface ReservationKey {
+
+    Long getId();
+
+    Instant getCreatedAt();
+}
@@ -0,0 +1,27 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// a reservation with one of its add-on lines (lineId and the amenity columns are null when it has none)
+public record ReservationLineRow(
+        Long id,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        ReservationStatus status,
+        Instant createdAt,
+        String username,
+        String email,
+        String city,
+        String categoryName,
+        BigDecimal categoryPrice,
+        Integer unitNumber,
+        Long lineId,
+        String amenityName,
+        Integer quantity,
+        BigDecimal amenityPrice
+) {
+}
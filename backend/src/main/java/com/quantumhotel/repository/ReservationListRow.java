@@ -0,0 +1,20 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// columns ReservationListDTO shows, selected with a JPQL constructor expression
+public record ReservationListRow(
+        Long id,
+        Long userId,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        ReservationStatus status,
+        String categoryName,
+        Long categoryId,
+        BigDecimal categoryPrice,
+        Integer unitNumber
+) {
+}
@@ -1,30 +1,267 @@
 package com.quantumhotel.repository;
 
 import com.quantumhotel.entity.Reservation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>,
+        JpaSpecificationExecutor<Reservation> {
 
-    List<Reservation> findByUserId(Long userId);
+    // ================= READ PROJECTIONS =================
 
     @Query("""
-        SELECT r.id, r.dateFrom, r.dateTo, r.createdAt, r.processedAt,
-               r.status, u.city, u.gender, c.price, u.dateOfBirth
+        SELECT new com.quantumhotel.repository.ReservationListRow(
+               r.id, r.user.id, r.dateFrom, r.dateTo, r.status,
+               c.name, c.id, c.price, u.roomNumber)
+        FROM Reservation r
+        JOIN r.category c
+        JOIN r.unit u
+        WHERE r.user.id = :userId
+        """)
+    List<ReservationListRow> findListRowsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationListRow(
+               r.id, r.user.id, r.dateFrom, r.dateTo, r.status,
+               c.name, c.id, c.price, u.roomNumber)
+        FROM Reservation r
+        JOIN r.category c
+        JOIN r.unit u
+        ORDER BY r.createdAt DESC
+        """)
+    List<ReservationListRow> findAllListRows();
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationListRow(
+               r.id, r.user.id, r.dateFrom, r.dateTo, r.status,
+               c.name, c.id, c.price, u.roomNumber)
+        FROM Reservation r
+        JOIN r.category c
+        JOIN r.unit u
+        WHERE r.id IN :ids
+        """)
+    List<ReservationListRow> findListRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationDetailsRow(
+               r.id, r.dateFrom, r.dateTo, r.status, r.createdAt, r.processedAt,
+               usr, p, c.name, c.price, u.roomNumber)
+        FROM Reservation r
+        JOIN r.user usr
+        LEFT JOIN r.processedBy p
+        JOIN r.category c
+        JOIN r.unit u
+        WHERE r.id = :id
+        """)
+    Optional<ReservationDetailsRow> findDetailsRowById(@Param("id") Long id);
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationAmenityRow(
+               ra.reservation.id, ra.id, a.id, a.name, ra.quantity, a.price)
+        FROM ReservationAmenity ra
+        JOIN ra.amenity a
+        WHERE ra.reservation.id IN :reservationIds
+        ORDER BY ra.id
+        """)
+    List<ReservationAmenityRow> findAmenityRows(@Param("reservationIds") Collection<Long> reservationIds);
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationAmenityRow(
+               ra.reservation.id, ra.id, a.id, a.name, ra.quantity, a.price)
+        FROM ReservationAmenity ra
+        JOIN ra.amenity a
+        WHERE ra.reservation.user.id = :userId
+        ORDER BY ra.id
+        """)
+    List<ReservationAmenityRow> findAmenityRowsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationAmenityRow(
+               ra.reservation.id, ra.id, a.id, a.name, ra.quantity, a.price)
+        FROM ReservationAmenity ra
+        JOIN ra.amenity a
+        ORDER BY ra.id
+        """)
+    List<ReservationAmenityRow> findAllAmenityRows();
+
+    // ================= STATISTICS =================
+    // stays with from >= startDate and to <= endDate; only the aggregates leave the database
+
+    // status, reservations, nights, room revenue at today's price (CONFIRMED only)
+    @Query("""
+        SELECT r.status, COUNT(r),
+               SUM((r.dateTo - r.dateFrom) by day),
+               SUM(CASE WHEN r.status = 'CONFIRMED' AND r.dateTo > r.dateFrom
+                        THEN c.price * ((r.dateTo - r.dateFrom) by day) END)
+        FROM Reservation r
+        JOIN r.category c
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        GROUP BY r.status
+        """)
+    List<Object[]> sumStaysByStatus(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // city, reservations
+    @Query("""
+        SELECT u.city, COUNT(r)
+        FROM Reservation r
+        JOIN r.user u
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+          AND u.city IS NOT NULL
+        GROUP BY u.city
+        """)
+    List<Object[]> countByCity(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // gender (null when not given), reservations
+    @Query("""
+        SELECT u.gender, COUNT(r)
+        FROM Reservation r
+        JOIN r.user u
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        GROUP BY u.gender
+        """)
+    List<Object[]> countByGender(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /*
+     * One row with the reservations per age group, youngest first. bornByN is
+     * the last birth date of a guest who is at least N years old, so the
+     * buckets need no age arithmetic in the database.
+     */
+    @Query("""
+        SELECT SUM(CASE WHEN u.dateOfBirth > :bornBy18 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy18 AND u.dateOfBirth > :bornBy25 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy25 AND u.dateOfBirth > :bornBy35 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy35 AND u.dateOfBirth > :bornBy45 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy45 AND u.dateOfBirth > :bornBy55 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy55 AND u.dateOfBirth > :bornBy65 THEN 1 ELSE 0 END),
+               SUM(CASE WHEN u.dateOfBirth <= :bornBy65 THEN 1 ELSE 0 END)
         FROM Reservation r
         JOIN r.user u
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        """)
+    List<Object[]> countByAgeGroup(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("bornBy18") LocalDate bornBy18,
+            @Param("bornBy25") LocalDate bornBy25,
+            @Param("bornBy35") LocalDate bornBy35,
+            @Param("bornBy45") LocalDate bornBy45,
+            @Param("bornBy55") LocalDate bornBy55,
+            @Param("bornBy65") LocalDate bornBy65
+    );
+
+    /*
+     * Every reservation of the range for the detail exports, in arrival order.
+     * Read through a cursor in pages of 500 rows; the caller must stay in a
+     * transaction and close the stream.
+     */
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationExportRow(
+               r.id, r.dateFrom, r.dateTo, r.status, r.createdAt,
+               usr.username, usr.email, usr.city, c.name, c.price, u.roomNumber)
+        FROM Reservation r
+        JOIN r.user usr
         JOIN r.category c
+        JOIN r.unit u
         WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        ORDER BY r.dateFrom, r.id
         """)
-    List<Object[]> findReservationsInDateRange(
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<ReservationExportRow> streamExportRows(
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
 
+    // the same reservations with one row per add-on line (one row without a line if there is none)
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationLineRow(
+               r.id, r.dateFrom, r.dateTo, r.status, r.createdAt,
+               usr.username, usr.email, usr.city, c.name, c.price, u.roomNumber,
+               ra.id, a.name, ra.quantity, a.price)
+        FROM Reservation r
+        JOIN r.user usr
+        JOIN r.category c
+        JOIN r.unit u
+        LEFT JOIN r.reservationAmenities ra
+        LEFT JOIN ra.amenity a
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        ORDER BY r.dateFrom, r.id, ra.id
+        """)
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<ReservationLineRow> streamLineRows(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // the same reservations, one row each with the guest's demographics and the add-ons summed up
+    @Query("""
+        SELECT new com.quantumhotel.repository.ReservationFactRow(
+               r.id, r.dateFrom, r.dateTo, r.status, r.createdAt,
+               c.name, c.price, u.roomNumber, usr.city, usr.gender, usr.dateOfBirth,
+               SUM(ra.quantity), SUM(ra.quantity * a.price))
+        FROM Reservation r
+        JOIN r.user usr
+        JOIN r.category c
+        JOIN r.unit u
+        LEFT JOIN r.reservationAmenities ra
+        LEFT JOIN ra.amenity a
+        WHERE r.dateFrom >= :startDate AND r.dateTo <= :endDate
+        GROUP BY r.id, r.dateFrom, r.dateTo, r.status, r.createdAt,
+                 c.name, c.price, u.roomNumber, usr.city, usr.gender, usr.dateOfBirth
+        ORDER BY r.dateFrom, r.id
+        """)
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<ReservationFactRow> streamFactRows(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // ================= OVERLAPS =================
+
+    @Query("""
+        SELECT r.id, r.unit.id, r.dateFrom, r.dateTo
+        FROM Reservation r
+        WHERE r.status = 'CONFIRMED'
+        """)
+    List<Object[]> findConfirmedStays();
+
+    @Query("""
+        SELECT r.id, r.unit.id, r.dateFrom, r.dateTo
+        FROM Reservation r
+        WHERE r.status = 'CONFIRMED'
+          AND NOT EXISTS (SELECT n FROM UnitNight n WHERE n.reservationId = r.id)
+          AND NOT EXISTS (SELECT c FROM UnitNightConflict c WHERE c.reservationId = r.id)
+        ORDER BY r.processedAt, r.id
+        """)
+    List<Object[]> findConfirmedStaysWithoutNights();
+
     //preklapanja
     @Query("""
     SELECT r FROM Reservation r
@@ -52,4 +289,18 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("reservationId") Long reservationId
     );
 
+    @Query("""
+    SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reservation r
+    WHERE r.unit.id = :unitId
+      AND (r.status = 'CONFIRMED' OR r.status = 'PENDING')
+      AND r.id <> :reservationId
+      AND NOT (r.dateTo <= :from OR r.dateFrom >= :to)
+""")
+    boolean existsOverlapExcludingSelf(
+            @Param("unitId") Long unitId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("reservationId") Long reservationId
+    );
+
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.controllers.dto.ReservationFilter;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.users.User;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ReservationSpecifications {
+
+    // keyset order, matches the (…, res_created, res_id) indexes on reservation
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ReservationSpecifications() {
+    }
+
+    public static Specification<Reservation> matching(ReservationFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThan(root.get("dateTo"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("dateFrom"), filter.getTo()));
+            }
+            if (filter.getGuest() != null && !filter.getGuest().isBlank()) {
+                Join<Reservation, User> user = root.join("user");
+                String pattern = "%" + escapeLike(filter.getGuest().trim().toLowerCase()) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(user.get("username")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(user.get("email")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(user.get("firstName")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(user.get("lastName")), pattern, LIKE_ESCAPE)
+                ));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // the guest text matches itself, a % or _ in it is no wildcard
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    // rows after (createdAt, id) in NEWEST_FIRST order
+    public static Specification<Reservation> after(Instant createdAt, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(
+                        cb.equal(root.get("createdAt"), createdAt),
+                        cb.lessThan(root.get("id"), id)
+                )
+        );
+    }
+}
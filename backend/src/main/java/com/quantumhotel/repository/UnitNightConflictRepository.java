@@ -0,0 +1,9 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.UnitNightConflict;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UnitNightConflictRepository extends JpaRepository<UnitNightConflict, Long> {
+}
@@ -0,0 +1,33 @@
+package com.quantumhotel.repository;
+
+import com.quantumhotel.entity.UnitNight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UnitNightRepository extends JpaRepository<UnitNight, UnitNight.Key> {
+
+    @Modifying
+    @Query("DELETE FROM UnitNight n WHERE n.reservationId = :reservationId")
+    int deleteByReservationId(@Param("reservationId") Long reservationId);
+
+    // unit, night of the rows already in the ledger for these units between from and to (exclusive)
+    @Query("""
+        SELECT n.unitId, n.night
+        FROM UnitNight n
+        WHERE n.unitId IN :unitIds
+          AND n.night >= :from AND n.night < :to
+        """)
+    List<Object[]> findNightsOfUnits(
+            @Param("unitIds") Collection<Long> unitIds,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+}
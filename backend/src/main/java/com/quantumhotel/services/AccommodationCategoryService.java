@@ -1,11 +1,14 @@
 package com.quantumhotel.services;
 
 import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.controllers.dto.AvailabilityCalendarDTO;
+import com.quantumhotel.controllers.dto.CategoryCalendarDTO;
 import com.quantumhotel.entity.AccommodationCategory;
 import com.quantumhotel.repository.AccommodationCategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -14,7 +17,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,7 +30,11 @@ import java.util.stream.Collectors;
 @Transactional
 public class AccommodationCategoryService {
 
+    static final int MAX_CALENDAR_NIGHTS = 365;
+
     private final AccommodationCategoryRepository categoryRepository;
+    private final AvailabilitySearchCache searchCache;
+    private final ApplicationEventPublisher events;
 
     public List<AccommodationCategoryDTO> getAll() {
         return categoryRepository.findAll().stream()
@@ -38,14 +49,18 @@ public class AccommodationCategoryService {
     public AccommodationCategoryDTO create(AccommodationCategoryDTO dto) {
         AccommodationCategory entity = new AccommodationCategory();
         mapToEntity(dto, entity);
-        return toDto(categoryRepository.save(entity));
+        AccommodationCategory saved = categoryRepository.save(entity);
+        events.publishEvent(new CatalogChangedEvent(AccommodationCategory.class, saved.getId()));
+        return toDto(saved);
     }
 
     public AccommodationCategoryDTO update(Long id, AccommodationCategoryDTO dto) {
         AccommodationCategory entity = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Kategorija nije pronađena"));
         mapToEntity(dto, entity);
-        return toDto(categoryRepository.save(entity));
+        AccommodationCategory saved = categoryRepository.save(entity);
+        events.publishEvent(new CatalogChangedEvent(AccommodationCategory.class, id));
+        return toDto(saved);
     }
 
     public List<AccommodationCategoryDTO> getAvailableCategories(LocalDate from, LocalDate to, Integer persons) {
@@ -59,14 +74,74 @@ public class AccommodationCategoryService {
             throw new IllegalArgumentException("Datum dolaska ne može biti u prošlosti.");
         }
 
-        return categoryRepository.findAvailableCategories(from, to, persons)
+        return searchCache.get(from, to, persons, () -> categoryRepository.findAvailableCategories(from, to, persons)
                 .stream()
                 .map(this::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /*
+     * Free units per category for every night in [from, to). One query for the
+     * unit counts, one for the CONFIRMED stays touching the range; each stay adds
+     * +1 at its first night and -1 after its last, and a prefix sum over that
+     * gives the occupied units per night.
+     */
+    public AvailabilityCalendarDTO getAvailabilityCalendar(LocalDate from, LocalDate to, Integer persons) {
+        if (to.isBefore(from) || to.isEqual(from)) {
+            throw new IllegalArgumentException("Datum odlaska mora biti nakon datuma dolaska.");
+        }
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+        if (nights > MAX_CALENDAR_NIGHTS) {
+            throw new IllegalArgumentException("Kalendar moze obuhvatiti najvise " + MAX_CALENDAR_NIGHTS + " noci.");
+        }
+
+        List<Object[]> categories = categoryRepository.countUnitsPerCategory(persons);
+        Map<Long, int[]> deltas = new HashMap<>();
+        for (Object[] row : categories) {
+            deltas.put((Long) row[0], new int[nights + 1]);
+        }
+
+        for (Object[] stay : categoryRepository.findConfirmedStaysBetween(from, to)) {
+            int[] delta = deltas.get((Long) stay[0]);
+            if (delta == null) {
+                continue; // kategorija za premalo osoba
+            }
+            int first = (int) Math.max(0, ChronoUnit.DAYS.between(from, (LocalDate) stay[1]));
+            int end = (int) Math.min(nights, ChronoUnit.DAYS.between(from, (LocalDate) stay[2]));
+            delta[first]++;
+            delta[end]--;
+        }
+
+        List<CategoryCalendarDTO> result = new ArrayList<>(categories.size());
+        for (Object[] row : categories) {
+            int units = ((Long) row[2]).intValue();
+            int[] delta = deltas.get((Long) row[0]);
+
+            List<Integer> free = new ArrayList<>(nights);
+            int occupied = 0;
+            for (int night = 0; night < nights; night++) {
+                occupied += delta[night];
+                free.add(Math.max(0, units - occupied));
+            }
+
+            CategoryCalendarDTO dto = new CategoryCalendarDTO();
+            dto.setCategoryId((Long) row[0]);
+            dto.setName((String) row[1]);
+            dto.setUnits(units);
+            dto.setFreeUnits(free);
+            result.add(dto);
+        }
+
+        AvailabilityCalendarDTO calendar = new AvailabilityCalendarDTO();
+        calendar.setFrom(from);
+        calendar.setTo(to);
+        calendar.setCategories(result);
+        return calendar;
     }
 
     public void delete(Long id) {
         categoryRepository.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent(AccommodationCategory.class, id));
     }
 
     private AccommodationCategoryDTO toDto(AccommodationCategory entity) {
@@ -117,6 +192,7 @@ public class AccommodationCategoryService {
         String relativePath = "/uploads/categories/" + filename;
         category.setImagePath(relativePath);
         categoryRepository.save(category);
+        events.publishEvent(new CatalogChangedEvent(AccommodationCategory.class, categoryId));
 
         return relativePath;
     }
@@ -8,6 +8,7 @@ import com.quantumhotel.repository.AccommodationUnitRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,6 +21,8 @@ public class AccommodationUnitService {
 
     private final AccommodationUnitRepository unitRepository;
     private final AccommodationCategoryRepository categoryRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher events;
 
     public List<AccommodationUnitDTO> getAll() {
         return unitRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
@@ -32,17 +35,25 @@ public class AccommodationUnitService {
     public AccommodationUnitDTO create(AccommodationUnitDTO dto) {
         AccommodationUnit unit = new AccommodationUnit();
         mapToEntity(dto, unit);
-        return toDto(unitRepository.save(unit));
+        AccommodationUnit saved = unitRepository.save(unit);
+        availabilityIndex.registerUnit(saved);
+        events.publishEvent(new CatalogChangedEvent(AccommodationUnit.class, saved.getId()));
+        return toDto(saved);
     }
 
     public AccommodationUnitDTO update(Long id, AccommodationUnitDTO dto) {
         AccommodationUnit unit = unitRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Soba nije pronađena"));
         mapToEntity(dto, unit);
-        return toDto(unitRepository.save(unit));
+        AccommodationUnit saved = unitRepository.save(unit);
+        availabilityIndex.registerUnit(saved);
+        events.publishEvent(new CatalogChangedEvent(AccommodationUnit.class, saved.getId()));
+        return toDto(saved);
     }
 
     public void delete(Long id) {
         unitRepository.deleteById(id);
+        availabilityIndex.removeUnit(id);
+        events.publishEvent(new CatalogChangedEvent(AccommodationUnit.class, id));
     }
 
     private AccommodationUnitDTO toDto(AccommodationUnit unit) {
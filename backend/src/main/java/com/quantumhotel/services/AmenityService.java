@@ -6,6 +6,7 @@ import com.quantumhotel.repository.AmenityRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 public class AmenityService {
 
     private final AmenityRepository amenityRepository;
+    private final ApplicationEventPublisher events;
 
     public List<AmenityDTO> getAll() {
         return amenityRepository.findAll().stream()
@@ -31,18 +33,23 @@ public class AmenityService {
     public AmenityDTO create(AmenityDTO dto) {
         Amenity amenity = new Amenity();
         mapToEntity(dto, amenity);
-        return toDto(amenityRepository.save(amenity));
+        Amenity saved = amenityRepository.save(amenity);
+        events.publishEvent(new CatalogChangedEvent(Amenity.class, saved.getId()));
+        return toDto(saved);
     }
 
     public AmenityDTO update(Long id, AmenityDTO dto) {
         Amenity amenity = amenityRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usluga nije pronađena"));
         mapToEntity(dto, amenity);
-        return toDto(amenityRepository.save(amenity));
+        Amenity saved = amenityRepository.save(amenity);
+        events.publishEvent(new CatalogChangedEvent(Amenity.class, id));
+        return toDto(saved);
     }
 
     public void delete(Long id) {
         amenityRepository.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent(Amenity.class, id));
     }
 
     private AmenityDTO toDto(Amenity entity) {
@@ -8,6 +8,7 @@ import com.quantumhotel.repository.UserRepository;
 import com.quantumhotel.users.User;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +22,7 @@ public class ArticleService {
 
     private final ArticleRepository articleRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
 
     // GET /api/articles
     public List<ArticleResponse> getAll() {
@@ -48,7 +50,9 @@ public class ArticleService {
         article.setAuthor(user); // managed entity
         article.setCreated(LocalDateTime.now());
 
-        return toResponse(articleRepository.save(article));
+        Article saved = articleRepository.save(article);
+        events.publishEvent(new CatalogChangedEvent(Article.class, saved.getId()));
+        return toResponse(saved);
     }
 
     // PATCH /api/articles/{id}
@@ -67,6 +71,7 @@ public class ArticleService {
         }
 
         article.setEdited(LocalDateTime.now());
+        events.publishEvent(new CatalogChangedEvent(Article.class, id));
         return toResponse(article);
     }
 
@@ -76,6 +81,7 @@ public class ArticleService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         articleRepository.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent(Article.class, id));
     }
 
     // Mapper
@@ -0,0 +1,269 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import com.quantumhotel.repository.ReservationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory view of CONFIRMED reservations per accommodation unit.
+ * Built once at startup and kept in sync by ReservationService, so looking
+ * for a free unit does not need a query per unit. It only sees the writes of
+ * this instance, so bookings are never refused on its word; ReservationService
+ * leaves that to the row locks and the night ledger.
+ * <p>
+ * Every unit keeps a {@link NightBitset} over the next {@value #HORIZON_NIGHTS}
+ * nights, so an overlap check inside the horizon is a few word-level ANDs.
+ * Ranges outside the horizon fall back to the sorted stays.
+ */
+@Component
+public class AvailabilityIndex {
+
+    static final int HORIZON_NIGHTS = 730;
+    private static final int REBASE_AFTER_DAYS = 30;
+    private static final NavigableSet<Long> EMPTY = Collections.emptyNavigableSet();
+
+    private final ReservationRepository reservationRepository;
+    private final AccommodationUnitRepository unitRepository;
+
+    private final Map<Long, NavigableSet<Long>> unitsByCategory = new ConcurrentHashMap<>();
+    private final Map<Long, Long> categoryByUnit = new ConcurrentHashMap<>();
+    private final Map<Long, UnitCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Stay> staysByReservation = new ConcurrentHashMap<>();
+    private volatile LocalDate horizonStart = LocalDate.now();
+
+    public AvailabilityIndex(ReservationRepository reservationRepository,
+                             AccommodationUnitRepository unitRepository) {
+        this.reservationRepository = reservationRepository;
+        this.unitRepository = unitRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        unitsByCategory.clear();
+        categoryByUnit.clear();
+        calendars.clear();
+        staysByReservation.clear();
+        horizonStart = LocalDate.now();
+
+        for (Object[] row : unitRepository.findUnitCategoryIds()) {
+            putUnit((Long) row[0], (Long) row[1]);
+        }
+        for (Object[] row : reservationRepository.findConfirmedStays()) {
+            addStay(new Stay((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDate) row[3]));
+        }
+    }
+
+    public Optional<Long> findFreeUnit(Long categoryId, LocalDate from, LocalDate to) {
+        ensureHorizon();
+        for (Long unitId : unitsByCategory.getOrDefault(categoryId, EMPTY)) {
+            if (isFreeWithinHorizon(unitId, from, to)) {
+                return Optional.of(unitId);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Long> freeUnits(Long categoryId, LocalDate from, LocalDate to) {
+        ensureHorizon();
+        List<Long> free = new ArrayList<>();
+        for (Long unitId : unitsByCategory.getOrDefault(categoryId, EMPTY)) {
+            if (isFreeWithinHorizon(unitId, from, to)) {
+                free.add(unitId);
+            }
+        }
+        return free;
+    }
+
+    public boolean isFree(Long unitId, LocalDate from, LocalDate to) {
+        ensureHorizon();
+        return isFreeWithinHorizon(unitId, from, to);
+    }
+
+    private boolean isFreeWithinHorizon(Long unitId, LocalDate from, LocalDate to) {
+        UnitCalendar calendar = calendars.get(unitId);
+        return calendar == null || !calendar.overlaps(from, to);
+    }
+
+    private void ensureHorizon() {
+        if (LocalDate.now().isAfter(horizonStart.plusDays(REBASE_AFTER_DAYS))) {
+            rebase();
+        }
+    }
+
+    private synchronized void rebase() {
+        LocalDate today = LocalDate.now();
+        if (today.isAfter(horizonStart.plusDays(REBASE_AFTER_DAYS))) {
+            horizonStart = today;
+            calendars.values().forEach(calendar -> calendar.rebase(today));
+        }
+    }
+
+    // ================= UPDATES =================
+
+    public void sync(Reservation r) {
+        Long reservationId = r.getId();
+        Stay stay = r.getStatus() == ReservationStatus.CONFIRMED
+                ? new Stay(reservationId, r.getUnit().getId(), r.getDateFrom(), r.getDateTo())
+                : null;
+        afterCommit(() -> apply(reservationId, stay));
+    }
+
+    public void registerUnit(AccommodationUnit unit) {
+        Long unitId = unit.getId();
+        Long categoryId = unit.getCategory().getId();
+        afterCommit(() -> putUnit(unitId, categoryId));
+    }
+
+    public void removeUnit(Long unitId) {
+        afterCommit(() -> dropUnit(unitId));
+    }
+
+    private synchronized void apply(Long reservationId, Stay stay) {
+        Stay previous = staysByReservation.remove(reservationId);
+        if (previous != null) {
+            UnitCalendar calendar = calendars.get(previous.unitId());
+            if (calendar != null) {
+                calendar.remove(previous);
+            }
+        }
+        if (stay != null) {
+            addStay(stay);
+        }
+    }
+
+    private void addStay(Stay stay) {
+        staysByReservation.put(stay.reservationId(), stay);
+        calendars.computeIfAbsent(stay.unitId(), id -> new UnitCalendar(horizonStart)).add(stay);
+    }
+
+    private synchronized void putUnit(Long unitId, Long categoryId) {
+        Long previousCategory = categoryByUnit.put(unitId, categoryId);
+        if (previousCategory != null && !previousCategory.equals(categoryId)) {
+            removeFromCategory(previousCategory, unitId);
+        }
+        unitsByCategory.computeIfAbsent(categoryId, id -> new ConcurrentSkipListSet<>()).add(unitId);
+    }
+
+    private synchronized void dropUnit(Long unitId) {
+        Long categoryId = categoryByUnit.remove(unitId);
+        if (categoryId != null) {
+            removeFromCategory(categoryId, unitId);
+        }
+        calendars.remove(unitId);
+        staysByReservation.values().removeIf(stay -> stay.unitId().equals(unitId));
+    }
+
+    private void removeFromCategory(Long categoryId, Long unitId) {
+        NavigableSet<Long> units = unitsByCategory.get(categoryId);
+        if (units != null) {
+            units.remove(unitId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ================= INTERNAL =================
+
+    record Stay(Long reservationId, Long unitId, LocalDate from, LocalDate to) {
+        long nights() {
+            return ChronoUnit.DAYS.between(from, to);
+        }
+    }
+
+    /**
+     * Confirmed stays of one unit ordered by arrival, mirrored into a night
+     * bitset. Outside the bitset horizon an overlap can only come from a stay
+     * that starts less than {@code longestStay} nights before the requested
+     * arrival, so lookups only walk that slice of the set.
+     */
+    static final class UnitCalendar {
+        private static final Comparator<Stay> BY_ARRIVAL =
+                Comparator.comparing(Stay::from).thenComparing(Stay::reservationId);
+
+        private final TreeSet<Stay> stays = new TreeSet<>(BY_ARRIVAL);
+        private NightBitset nights;
+        private long longestStay;
+
+        UnitCalendar(LocalDate horizonStart) {
+            this.nights = new NightBitset(horizonStart, HORIZON_NIGHTS);
+        }
+
+        synchronized void add(Stay stay) {
+            stays.add(stay);
+            longestStay = Math.max(longestStay, stay.nights());
+            nights.set(stay.from(), stay.to());
+        }
+
+        synchronized void remove(Stay stay) {
+            stays.remove(stay);
+            nights.clear(stay.from(), stay.to());
+            // stays that overlap each other share bits, put theirs back
+            for (Stay other : overlapping(stay.from(), stay.to())) {
+                nights.set(other.from(), other.to());
+            }
+        }
+
+        synchronized boolean overlaps(LocalDate from, LocalDate to) {
+            if (nights.covers(from, to)) {
+                return nights.intersects(from, to);
+            }
+            return !overlapping(from, to).isEmpty();
+        }
+
+        synchronized void rebase(LocalDate horizonStart) {
+            nights = new NightBitset(horizonStart, HORIZON_NIGHTS);
+            for (Stay stay : stays.tailSet(probe(horizonStart.minusDays(longestStay)), true)) {
+                nights.set(stay.from(), stay.to());
+            }
+        }
+
+        private List<Stay> overlapping(LocalDate from, LocalDate to) {
+            List<Stay> result = new ArrayList<>();
+            Stay lower = probe(from.minusDays(longestStay));
+            Stay upper = probe(to);
+            for (Stay stay : stays.subSet(lower, true, upper, false)) {
+                if (stay.to().isAfter(from)) {
+                    result.add(stay);
+                }
+            }
+            return result;
+        }
+
+        private static Stay probe(LocalDate date) {
+            return new Stay(Long.MIN_VALUE, null, date, date);
+        }
+    }
+}
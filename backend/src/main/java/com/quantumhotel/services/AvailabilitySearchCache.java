@@ -0,0 +1,105 @@
+package com.quantumhotel.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Results of the anonymous availability search keyed by (from, to, persons).
+ * <p>
+ * Concurrent misses on the same key wait for a single load. Entries are
+ * dropped after commit of any reservation change whose old or new dates
+ * overlap the key's range, and all of them when a category or unit changes. A load
+ * that was already running when such a change committed may have read the
+ * old state; its result is returned to the callers waiting for it but not
+ * kept in the cache.
+ * <p>
+ * Hit rate, evictions and load time are published as the {@code cache.*}
+ * meters tagged {@code cache=availability.search}.
+ */
+@Component
+public class AvailabilitySearchCache {
+
+    record Key(LocalDate from, LocalDate to, Integer persons) {
+        boolean overlaps(ReservationChangedEvent event) {
+            return event.overlaps(from, to);
+        }
+    }
+
+    private static final class Load {
+        final Key key;
+        volatile boolean stale;
+
+        Load(Key key) {
+            this.key = key;
+        }
+    }
+
+    private final Cache<Key, List<AccommodationCategoryDTO>> cache;
+    private final Set<Load> loading = ConcurrentHashMap.newKeySet();
+
+    public AvailabilitySearchCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.availability.cache.max-entries:10000}") long maxEntries,
+            @Value("${app.availability.cache.ttl:10m}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "availability.search");
+    }
+
+    public List<AccommodationCategoryDTO> get(LocalDate from, LocalDate to, Integer persons,
+                                              Supplier<List<AccommodationCategoryDTO>> loader) {
+        Key key = new Key(from, to, persons);
+        Load load = new Load(key);
+        List<AccommodationCategoryDTO> result;
+        try {
+            result = cache.get(key, k -> {
+                loading.add(load);
+                return List.copyOf(loader.get());
+            });
+        } finally {
+            loading.remove(load);
+        }
+        if (load.stale) {
+            cache.asMap().remove(key, result);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        cache.asMap().keySet().removeIf(key -> key.overlaps(event));
+        for (Load load : loading) {
+            if (load.key.overlaps(event)) {
+                load.stale = true;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() != AccommodationCategory.class && event.type() != AccommodationUnit.class) {
+            return;
+        }
+        cache.invalidateAll();
+        loading.forEach(load -> load.stale = true);
+    }
+}
@@ -0,0 +1,107 @@
+package com.quantumhotel.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.controllers.dto.AccommodationUnitDTO;
+import com.quantumhotel.controllers.dto.AmenityDTO;
+import com.quantumhotel.controllers.dto.LocationResponseDto;
+import com.quantumhotel.services.ContentVersions.Collection;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Read-through snapshots of the public catalog: categories, amenities, units
+ * and the hotel location. Each snapshot keeps the DTOs and their JSON as
+ * serialised by the application's ObjectMapper, so the GET endpoints write
+ * the bytes as they are without a transaction, a query or Jackson.
+ * <p>
+ * A snapshot remembers the {@link ContentVersions} version it was loaded at
+ * and is reloaded through the services' getAll methods on the first read
+ * after that version moves. A reload racing with a change is stamped with
+ * the version read before it started, so the next read loads again.
+ */
+@Component
+public class CatalogCache {
+
+    public record Snapshot<T>(long version, T value, byte[] json) { }
+
+    private static final Collection[] CATALOG = {
+            Collection.CATEGORIES, Collection.AMENITIES, Collection.UNITS, Collection.LOCATION
+    };
+
+    private final AccommodationCategoryService categoryService;
+    private final AmenityService amenityService;
+    private final AccommodationUnitService unitService;
+    private final LocationService locationService;
+    private final ContentVersions versions;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Collection, AtomicReference<Snapshot<?>>> slots = new EnumMap<>(Collection.class);
+
+    public CatalogCache(AccommodationCategoryService categoryService,
+                        AmenityService amenityService,
+                        AccommodationUnitService unitService,
+                        LocationService locationService,
+                        ContentVersions versions,
+                        ObjectMapper objectMapper) {
+        this.categoryService = categoryService;
+        this.amenityService = amenityService;
+        this.unitService = unitService;
+        this.locationService = locationService;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        for (Collection collection : CATALOG) {
+            slots.put(collection, new AtomicReference<>());
+        }
+    }
+
+    public Snapshot<List<AccommodationCategoryDTO>> categories() {
+        return get(Collection.CATEGORIES, () -> List.copyOf(categoryService.getAll()));
+    }
+
+    public Snapshot<List<AmenityDTO>> amenities() {
+        return get(Collection.AMENITIES, () -> List.copyOf(amenityService.getAll()));
+    }
+
+    public Snapshot<List<AccommodationUnitDTO>> units() {
+        return get(Collection.UNITS, () -> List.copyOf(unitService.getAll()));
+    }
+
+    public Snapshot<LocationResponseDto> location() {
+        return get(Collection.LOCATION, locationService::get);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Snapshot<T> get(Collection collection, Supplier<T> loader) {
+        AtomicReference<Snapshot<?>> slot = slots.get(collection);
+        long version = versions.current(collection).version();
+        Snapshot<?> snapshot = slot.get();
+        if (snapshot != null && snapshot.version() == version) {
+            return (Snapshot<T>) snapshot;
+        }
+        synchronized (slot) {
+            snapshot = slot.get();
+            if (snapshot != null && snapshot.version() == version) {
+                return (Snapshot<T>) snapshot;
+            }
+            T value = loader.get();
+            Snapshot<T> loaded = new Snapshot<>(version, value, serialize(value));
+            slot.set(loaded);
+            return loaded;
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise catalog snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.quantumhotel.services;
+
+/**
+ * Published when public content (categories, units, amenities, location,
+ * FAQ, articles) is created, changed or removed; {@code type} is the entity
+ * class. Caches and validators derived from that content listen for it.
+ */
+public record CatalogChangedEvent(Class<?> type, Long id) {
+}
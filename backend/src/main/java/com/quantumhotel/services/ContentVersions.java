@@ -0,0 +1,97 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Amenity;
+import com.quantumhotel.entity.Article;
+import com.quantumhotel.entity.Faq;
+import com.quantumhotel.entity.Location;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version counter and last-modified time of every public collection, bumped
+ * after a {@link CatalogChangedEvent} commits. They drive the ETag and
+ * Last-Modified validators of the public GET endpoints and tell
+ * {@link CatalogCache} when a snapshot is out of date.
+ * <p>
+ * Counters start from zero on every boot, so the ETag also carries the boot
+ * time. Last-Modified starts at the boot time and moves at least a second
+ * per change because HTTP dates have no finer precision.
+ */
+@Component
+public class ContentVersions {
+
+    public enum Collection {
+        FAQ("faq"),
+        ARTICLES("articles"),
+        CATEGORIES("room-categories"),
+        AMENITIES("addons"),
+        UNITS("rooms"),
+        LOCATION("location");
+
+        private final String key;
+
+        Collection(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    public record Stamp(long version, Instant lastModified) { }
+
+    private final String epoch;
+    private final Map<Collection, AtomicReference<Stamp>> stamps = new EnumMap<>(Collection.class);
+
+    public ContentVersions() {
+        Instant boot = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        this.epoch = Long.toString(boot.getEpochSecond(), 36);
+        for (Collection collection : Collection.values()) {
+            stamps.put(collection, new AtomicReference<>(new Stamp(0, boot)));
+        }
+    }
+
+    public Stamp current(Collection collection) {
+        return stamps.get(collection).get();
+    }
+
+    public String etag(Collection collection, Stamp stamp) {
+        return "\"" + collection.key() + "-" + epoch + "-" + stamp.version() + "\"";
+    }
+
+    public void bump(Collection collection) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        stamps.get(collection).updateAndGet(previous -> new Stamp(
+                previous.version() + 1,
+                now.isAfter(previous.lastModified()) ? now : previous.lastModified().plusSeconds(1)
+        ));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Class<?> type = event.type();
+        if (type == AccommodationCategory.class) {
+            bump(Collection.CATEGORIES);
+            bump(Collection.UNITS); // units carry the category name
+        } else if (type == AccommodationUnit.class) {
+            bump(Collection.UNITS);
+        } else if (type == Amenity.class) {
+            bump(Collection.AMENITIES);
+        } else if (type == Location.class) {
+            bump(Collection.LOCATION);
+        } else if (type == Faq.class) {
+            bump(Collection.FAQ);
+        } else if (type == Article.class) {
+            bump(Collection.ARTICLES);
+        }
+    }
+}
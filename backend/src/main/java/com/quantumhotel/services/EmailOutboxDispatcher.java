@@ -0,0 +1,219 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.EmailOutbox;
+import com.quantumhotel.entity.EmailOutboxStatus;
+import com.quantumhotel.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email_outbox table. Each round claims a batch of due messages
+ * in a short transaction, sends the whole batch over one SMTP connection
+ * outside of any transaction and then records the outcome. Failed messages
+ * are retried with exponential backoff and end up DEAD after
+ * {@code app.mail.outbox.max-attempts} tries. Sent and dead messages are
+ * deleted once they are older than {@code app.mail.outbox.retention}, their
+ * bodies carry password reset and verification links.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Pageable batch;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+
+    public EmailOutboxDispatcher(
+            EmailOutboxRepository outboxRepository,
+            JavaMailSender mailSender,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+            @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.mail.outbox.backoff:30s}") Duration backoff,
+            @Value("${app.mail.outbox.max-backoff:1h}") Duration maxBackoff,
+            @Value("${app.mail.outbox.lease:5m}") Duration lease,
+            @Value("${app.mail.outbox.retention:3d}") Duration retention
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batch = PageRequest.of(0, batchSize);
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+
+        Gauge.builder("email.outbox.depth", pendingDepth, AtomicLong::get)
+                .tag("status", "pending")
+                .description("Messages waiting to be sent")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.depth", deadDepth, AtomicLong::get)
+                .tag("status", "dead")
+                .description("Messages that gave up after max attempts")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to hand one batch to the SMTP server")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("email.outbox.sent");
+        this.failedCounter = meterRegistry.counter("email.outbox.failed");
+        this.deadCounter = meterRegistry.counter("email.outbox.dead");
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:5000}")
+    public void dispatch() {
+        List<EmailOutbox> claimed;
+        do {
+            claimed = claim();
+            if (!claimed.isEmpty()) {
+                deliver(claimed);
+            }
+        } while (claimed.size() == batch.getPageSize());
+        refreshDepth();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval:3600000}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteFinishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            System.out.println("Purged " + deleted + " sent or dead emails created before " + cutoff);
+        }
+    }
+
+    private List<EmailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailOutbox> due = outboxRepository.lockDue(now, batch);
+            // other dispatchers skip these until the lease runs out, even after this commit
+            due.forEach(e -> e.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> claimed) {
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        Map<EmailOutbox, String> failures = new HashMap<>();
+        for (EmailOutbox e : claimed) {
+            try {
+                messages.put(toMimeMessage(e), e);
+            } catch (MessagingException ex) {
+                failures.put(e, ex.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            Timer.Sample sample = Timer.start();
+            try {
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException ex) {
+                if (ex.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(e -> failures.put(e, ex.getMessage()));
+                }
+                ex.getFailedMessages().forEach((message, cause) ->
+                        failures.put(messages.get(message), cause.getMessage()));
+            } catch (MailException ex) {
+                messages.values().forEach(e -> failures.put(e, ex.getMessage()));
+            } finally {
+                sample.stop(sendTimer);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(claimed, failures));
+    }
+
+    private void recordOutcome(List<EmailOutbox> claimed, Map<EmailOutbox, String> failures) {
+        Instant now = Instant.now();
+        List<Long> sent = claimed.stream()
+                .filter(e -> !failures.containsKey(e))
+                .map(EmailOutbox::getId)
+                .toList();
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(sent, now);
+            sentCounter.increment(sent.size());
+        }
+
+        failures.forEach((e, error) -> {
+            e.setAttempts(e.getAttempts() + 1);
+            e.setLastError(truncate(error));
+            if (e.getAttempts() >= maxAttempts) {
+                e.setStatus(EmailOutboxStatus.DEAD);
+                deadCounter.increment();
+            } else {
+                e.setNextAttemptAt(now.plus(backoffFor(e.getAttempts())));
+                failedCounter.increment();
+            }
+        });
+        outboxRepository.saveAll(failures.keySet());
+    }
+
+    // backoff, 2 x backoff, 4 x backoff ... up to maxBackoff
+    Duration backoffFor(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void refreshDepth() {
+        pendingDepth.set(outboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        deadDepth.set(outboxRepository.countByStatus(EmailOutboxStatus.DEAD));
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox e) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, e.isHtml(), "UTF-8");
+
+        helper.setTo(e.getRecipient());
+        if (e.getReplyTo() != null) {
+            helper.setReplyTo(e.getReplyTo());
+        }
+        helper.setSubject(e.getSubject());
+        helper.setText(e.getBody(), e.isHtml());
+        return message;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,17 +1,18 @@
 package com.quantumhotel.services;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.quantumhotel.entity.EmailOutbox;
+import com.quantumhotel.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 
 
+/**
+ * Emails are not sent here: they are written to the email_outbox table in the
+ * caller's transaction and EmailOutboxDispatcher sends them in the background.
+ */
 @Service
 public class EmailService {
     @Value("${app.domain}")
@@ -21,7 +22,7 @@ public class EmailService {
     private String support;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository outboxRepository;
 
     public void sendVerificationEmail(String to, String token) {
         String link = domain + "/verify?token=" + token;
@@ -50,18 +51,17 @@ public class EmailService {
         sendHtmlEmail(to, "Reset your Quantum Hotel Password", html);
     }
     public void sendSupportQuestion(String senderEmail, String senderName, String subject, String message) {
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setTo(support);
-        mailMessage.setReplyTo(senderEmail);
-        mailMessage.setSubject("Support Question: " + subject);
-        mailMessage.setText(
+        enqueue(
+                support,
+                senderEmail,
+                "Support Question: " + subject,
                 "Support Question Received\n\n" +
                         "From: " + senderName + "\n" +
                         "Email: " + senderEmail + "\n\n" +
                         "Subject: " + subject + "\n\n" +
-                        "Message:\n" + message
+                        "Message:\n" + message,
+                false
         );
-        mailSender.send(mailMessage);
         }
 
         public void sendReservationConfirmed(String to, Long reservationId) {
@@ -100,18 +100,17 @@ public class EmailService {
         sendHtmlEmail(to, "Reservation Update", html);
     }
         private void sendHtmlEmail(String to, String subject, String htmlContent) {
-            try {
-                MimeMessage message = mailSender.createMimeMessage();
-                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-                helper.setTo(to);
-                helper.setSubject(subject);
-                helper.setText(htmlContent, true); // true = HTML
-
-                mailSender.send(message);
-            } catch (MessagingException e) {
-                throw new RuntimeException("Failed to send email", e);
-            }
+            enqueue(to, null, subject, htmlContent, true);
+        }
+
+        private void enqueue(String to, String replyTo, String subject, String body, boolean html) {
+            EmailOutbox email = new EmailOutbox();
+            email.setRecipient(to);
+            email.setReplyTo(replyTo);
+            email.setSubject(subject);
+            email.setBody(body);
+            email.setHtml(html);
+            outboxRepository.save(email);
         }
 
         // Reusable HTML template
@@ -9,6 +9,7 @@ import com.quantumhotel.users.User;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +23,7 @@ public class FaqService {
 
     private final FaqRepository faqRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
 
     public List<FaqResponse> findAll() {
         return faqRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"))
@@ -41,7 +43,9 @@ public class FaqService {
         faq.setCreatedAt(Instant.now());
         faq.setCreatedBy(user);
 
-        return mapToResponse(faqRepository.save(faq));
+        Faq saved = faqRepository.save(faq);
+        events.publishEvent(new CatalogChangedEvent(Faq.class, saved.getId()));
+        return mapToResponse(saved);
     }
 
     @Transactional
@@ -56,6 +60,7 @@ public class FaqService {
         faq.setQuestion(dto.getQuestion());
         faq.setAnswer(dto.getAnswer());
         faq.setEditedAt(Instant.now());
+        events.publishEvent(new CatalogChangedEvent(Faq.class, id));
 
         return mapToResponse(faq);
     }
@@ -67,6 +72,7 @@ public class FaqService {
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
         faqRepository.deleteById(id);
+        events.publishEvent(new CatalogChangedEvent(Faq.class, id));
     }
 
     private FaqResponse mapToResponse(Faq faq) {
@@ -0,0 +1,40 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.LocationResponseDto;
+import com.quantumhotel.entity.Location;
+import com.quantumhotel.repository.LocationRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LocationService {
+
+    private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher events;
+
+    public LocationResponseDto get() {
+        Location loc = locationRepository.findById(1L)
+                .orElseGet(() -> {
+                    Location defaultLoc = new Location();
+                    defaultLoc.setLatitude(45.801278);
+                    defaultLoc.setLongitude(15.969584);
+                    return locationRepository.save(defaultLoc);
+                });
+
+        return new LocationResponseDto(loc.getLatitude(), loc.getLongitude());
+    }
+
+    public LocationResponseDto update(LocationResponseDto updated) {
+        Location loc = locationRepository.findById(1L).orElse(new Location());
+        loc.setLatitude(updated.getLatitude());
+        loc.setLongitude(updated.getLongitude());
+        loc = locationRepository.save(loc);
+        events.publishEvent(new CatalogChangedEvent(Location.class, loc.getId()));
+
+        return new LocationResponseDto(loc.getLatitude(), loc.getLongitude());
+    }
+}
@@ -0,0 +1,73 @@
+package com.quantumhotel.services;
+
+import java.time.LocalDate;
+
+/**
+ * One bit per night over a fixed horizon starting at {@code base}.
+ * Bit {@code i} is set when the night of {@code base + i} is occupied.
+ */
+final class NightBitset {
+
+    private final long base;
+    private final int nights;
+    private final long[] words;
+
+    NightBitset(LocalDate base, int nights) {
+        this.base = base.toEpochDay();
+        this.nights = nights;
+        this.words = new long[(nights + 63) >>> 6];
+    }
+
+    boolean covers(LocalDate from, LocalDate to) {
+        return from.toEpochDay() >= base && to.toEpochDay() <= base + nights;
+    }
+
+    void set(LocalDate from, LocalDate to) {
+        int start = clampedBit(from);
+        int end = clampedBit(to);
+        for (int word = start >>> 6; start < end; word++) {
+            words[word] |= mask(start, end);
+            start = (word + 1) << 6;
+        }
+    }
+
+    void clear(LocalDate from, LocalDate to) {
+        int start = clampedBit(from);
+        int end = clampedBit(to);
+        for (int word = start >>> 6; start < end; word++) {
+            words[word] &= ~mask(start, end);
+            start = (word + 1) << 6;
+        }
+    }
+
+    /** Caller must check {@link #covers} first. */
+    boolean intersects(LocalDate from, LocalDate to) {
+        int start = bit(from);
+        int end = bit(to);
+        for (int word = start >>> 6; start < end; word++) {
+            if ((words[word] & mask(start, end)) != 0) {
+                return true;
+            }
+            start = (word + 1) << 6;
+        }
+        return false;
+    }
+
+    // bits [start, end) that fall into the word holding start
+    private static long mask(int start, int end) {
+        long mask = -1L << start;
+        int wordEnd = ((start >>> 6) + 1) << 6;
+        if (end < wordEnd) {
+            mask &= -1L >>> (wordEnd - end);
+        }
+        return mask;
+    }
+
+    private int bit(LocalDate date) {
+        return (int) (date.toEpochDay() - base);
+    }
+
+    private int clampedBit(LocalDate date) {
+        return (int) Math.max(0, Math.min(nights, date.toEpochDay() - base));
+    }
+}
@@ -0,0 +1,118 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.UnitNight;
+import com.quantumhotel.entity.UnitNightConflict;
+import com.quantumhotel.repository.ReservationRepository;
+import com.quantumhotel.repository.UnitNightConflictRepository;
+import com.quantumhotel.repository.UnitNightRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the unit_night table in line with CONFIRMED reservations: one row
+ * per booked night, keyed by (un_id, night). Inserting the rows is the
+ * overlap check, the database rejects a night that is already taken.
+ */
+@Service
+@Transactional
+public class NightLedger {
+
+    private final UnitNightRepository unitNightRepository;
+    private final ReservationRepository reservationRepository;
+    private final UnitNightConflictRepository unitNightConflictRepository;
+
+    public NightLedger(UnitNightRepository unitNightRepository,
+                       ReservationRepository reservationRepository,
+                       UnitNightConflictRepository unitNightConflictRepository) {
+        this.unitNightRepository = unitNightRepository;
+        this.reservationRepository = reservationRepository;
+        this.unitNightConflictRepository = unitNightConflictRepository;
+    }
+
+    public void book(Reservation r) {
+        try {
+            unitNightRepository.saveAllAndFlush(
+                    nightsOf(r.getId(), r.getUnit().getId(), r.getDateFrom(), r.getDateTo()));
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Unit is already booked in selected period"
+            );
+        }
+    }
+
+    public void release(Long reservationId) {
+        unitNightRepository.deleteByReservationId(reservationId);
+    }
+
+    /*
+     * Confirmed reservations from before the ledger existed. Older data may
+     * already contain overlaps; a night already in the ledger, or claimed by
+     * an earlier reservation of this run, stays with its holder and the rest
+     * are reported instead of failing the startup. Reservations that lost
+     * nights are recorded as conflicts so later startups skip them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Object[]> stays = reservationRepository.findConfirmedStaysWithoutNights();
+        if (stays.isEmpty()) {
+            return;
+        }
+
+        Set<Long> unitIds = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        LocalDate to = LocalDate.MIN;
+        for (Object[] row : stays) {
+            unitIds.add((Long) row[1]);
+            from = ((LocalDate) row[2]).isBefore(from) ? (LocalDate) row[2] : from;
+            to = ((LocalDate) row[3]).isAfter(to) ? (LocalDate) row[3] : to;
+        }
+        Set<UnitNight.Key> taken = new HashSet<>();
+        for (Object[] row : unitNightRepository.findNightsOfUnits(unitIds, from, to)) {
+            taken.add(new UnitNight.Key((Long) row[0], (LocalDate) row[1]));
+        }
+
+        List<UnitNight> nights = new ArrayList<>();
+        List<UnitNightConflict> conflicts = new ArrayList<>();
+        for (Object[] row : stays) {
+            Long reservationId = (Long) row[0];
+            int skipped = 0;
+            for (UnitNight night : nightsOf(reservationId, (Long) row[1], (LocalDate) row[2], (LocalDate) row[3])) {
+                if (taken.add(night.getId())) {
+                    nights.add(night);
+                } else {
+                    skipped++;
+                    System.out.println("Reservation " + reservationId + " overlaps another confirmed stay on "
+                            + night.getNight() + ", night not added to ledger.");
+                }
+            }
+            if (skipped > 0) {
+                conflicts.add(new UnitNightConflict(reservationId, skipped));
+            }
+        }
+        unitNightRepository.saveAll(nights);
+        unitNightConflictRepository.saveAll(conflicts);
+        System.out.println("Night ledger backfilled for " + stays.size() + " reservations, "
+                + conflicts.size() + " with overlapping nights.");
+    }
+
+    static List<UnitNight> nightsOf(Long reservationId, Long unitId, LocalDate from, LocalDate to) {
+        List<UnitNight> nights = new ArrayList<>();
+        for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+            nights.add(new UnitNight(unitId, night, reservationId));
+        }
+        return nights;
+    }
+}
@@ -0,0 +1,26 @@
+package com.quantumhotel.services;
+
+import java.time.LocalDate;
+
+/**
+ * Published by ReservationService when a reservation is created, confirmed,
+ * rejected or its dates or add-ons change. {@code previousFrom}/{@code previousTo}
+ * are the dates before the change (equal to from/to when they did not change).
+ */
+public record ReservationChangedEvent(
+        Long reservationId,
+        LocalDate from,
+        LocalDate to,
+        LocalDate previousFrom,
+        LocalDate previousTo
+) {
+
+    static ReservationChangedEvent of(Long reservationId, LocalDate from, LocalDate to) {
+        return new ReservationChangedEvent(reservationId, from, to, from, to);
+    }
+
+    public boolean overlaps(LocalDate rangeFrom, LocalDate rangeTo) {
+        return (from.isBefore(rangeTo) && rangeFrom.isBefore(to))
+                || (previousFrom.isBefore(rangeTo) && rangeFrom.isBefore(previousTo));
+    }
+}
@@ -3,13 +3,18 @@ package com.quantumhotel.services;
 
 import com.quantumhotel.controllers.dto.ReservationCreateDTO;
 import com.quantumhotel.controllers.dto.ReservationDetailsDTO;
+import com.quantumhotel.controllers.dto.ReservationFilter;
 import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.controllers.dto.ReservationPageDTO;
 import com.quantumhotel.controllers.dto.ReservationPatchDto;
 import com.quantumhotel.entity.*;
 import com.quantumhotel.repository.*;
 import com.quantumhotel.services.EmailService;
 import com.quantumhotel.users.User;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,20 +23,29 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ReservationService {
 
+    private static final Pageable FIRST_UNIT = PageRequest.of(0, 1);
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ReservationRepository reservationRepository;
     private final AccommodationCategoryRepository categoryRepository;
     private final AccommodationUnitRepository unitRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final AmenityRepository amenityRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final NightLedger nightLedger;
+    private final ApplicationEventPublisher events;
 
     public ReservationService(
             ReservationRepository reservationRepository,
@@ -39,7 +53,10 @@ public class ReservationService {
             AccommodationUnitRepository unitRepository,
             UserRepository userRepository,
             EmailService emailService,
-            AmenityRepository amenityRepository
+            AmenityRepository amenityRepository,
+            AvailabilityIndex availabilityIndex,
+            NightLedger nightLedger,
+            ApplicationEventPublisher events
     ) {
         this.reservationRepository = reservationRepository;
         this.categoryRepository = categoryRepository;
@@ -47,6 +64,9 @@ public class ReservationService {
         this.userRepository = userRepository;
         this.emailService=emailService;
         this.amenityRepository=amenityRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.nightLedger = nightLedger;
+        this.events = events;
     }
 
     // ================= USER =================
@@ -72,19 +92,25 @@ public class ReservationService {
 
         //amenities
         if (dto.getAmenities() != null && !dto.getAmenities().isEmpty()) {
+            Map<Long, Amenity> amenities = amenitiesById(dto.getAmenities().stream()
+                    .map(ReservationCreateDTO.AmenityRequest::getAmenityId)
+                    .toList());
             dto.getAmenities().forEach(aReq -> {
+                Amenity amenity = amenities.get(aReq.getAmenityId());
+                if (amenity == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Amenity not found");
+                }
                 ReservationAmenity ra = new ReservationAmenity();
-                ra.setAmenity(
-                        amenityRepository.findById(aReq.getAmenityId())
-                                .orElseThrow(() ->
-                                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Amenity not found"))
-                );
+                ra.setAmenity(amenity);
                 ra.setQuantity(aReq.getQuantity());
                 r.addAmenity(ra); //
             });
         }
 
-        return reservationRepository.save(r);
+        Reservation saved = reservationRepository.save(r);
+        availabilityIndex.sync(saved);
+        events.publishEvent(ReservationChangedEvent.of(saved.getId(), saved.getDateFrom(), saved.getDateTo()));
+        return saved;
     }
 
 
@@ -92,10 +118,10 @@ public class ReservationService {
     public List<ReservationListDTO> findMine(String username) {
         User user = resolveUser(username);
 
-        return reservationRepository.findByUserId(user.getId())
-                .stream()
-                .map(ReservationListDTO::from)
-                .toList();
+        return toListDtos(
+                reservationRepository.findListRowsByUserId(user.getId()),
+                reservationRepository.findAmenityRowsByUserId(user.getId())
+        );
     }
     public Reservation patch(Long id, ReservationPatchDto dto, String username) {
         User user = resolveUser(username);
@@ -116,51 +142,56 @@ public class ReservationService {
 
 
 
+        LocalDate previousFrom = r.getDateFrom();
+        LocalDate previousTo = r.getDateTo();
         if (dto.getDateFrom() != null) r.setDateFrom(dto.getDateFrom());
         if (dto.getDateTo() != null) r.setDateTo(dto.getDateTo());
         if (dto.getAmenities() != null) {
+            Map<Long, Amenity> amenities = amenitiesById(dto.getAmenities().stream()
+                    .map(ReservationPatchDto.AmenityRequest::getAmenityId)
+                    .toList());
+            Map<Long, ReservationAmenity> current = new HashMap<>();
+            for (ReservationAmenity ra : r.getReservationAmenities()) {
+                current.putIfAbsent(ra.getAmenity().getId(), ra);
+            }
+
             for (ReservationPatchDto.AmenityRequest req : dto.getAmenities()) {
 
-                Optional<Amenity> amenityOpt = amenityRepository.findById(req.getAmenityId());
-                if (amenityOpt.isEmpty()) {
+                Amenity amenity = amenities.get(req.getAmenityId());
+                if (amenity == null) {
                     continue;
                 }
                 if (req.getQuantity() == 0) {
-                    r.getReservationAmenities().removeIf(
-                            ra -> ra.getAmenity().getId().equals(req.getAmenityId())
-                    );
+                    if (current.remove(req.getAmenityId()) != null) {
+                        r.getReservationAmenities().removeIf(
+                                ra -> ra.getAmenity().getId().equals(req.getAmenityId())
+                        );
+                    }
                     continue;
                 }
 
-                ReservationAmenity ra = r.getReservationAmenities().stream()
-                        .filter(a -> a.getAmenity().getId().equals(req.getAmenityId()))
-                        .findFirst()
-                        .orElseGet(() -> {
-                            ReservationAmenity newRa = new ReservationAmenity();
-                            newRa.setReservation(r);
-                            newRa.setAmenity(amenityOpt.get());
-                            r.getReservationAmenities().add(newRa);
-                            return newRa;
-                        });
+                ReservationAmenity ra = current.computeIfAbsent(req.getAmenityId(), amenityId -> {
+                    ReservationAmenity newRa = new ReservationAmenity();
+                    newRa.setReservation(r);
+                    newRa.setAmenity(amenity);
+                    r.getReservationAmenities().add(newRa);
+                    return newRa;
+                });
 
                 ra.setQuantity(req.getQuantity());
             }
         }
-        List<Reservation> conflicts =
-                reservationRepository.findConfirmedOverlapsExcludingSelf(
-                        r.getUnit().getId(),
-                        r.getDateFrom(),
-                        r.getDateTo(),
-                        r.getId()
-                );
-
-        if (!conflicts.isEmpty()) {
+        if (isBookedByOthers(r)) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "Unit is already booked in selected period"
             );
         }
-        return reservationRepository.save(r);
+        Reservation saved = reservationRepository.save(r);
+        availabilityIndex.sync(saved);
+        events.publishEvent(new ReservationChangedEvent(
+                saved.getId(), saved.getDateFrom(), saved.getDateTo(), previousFrom, previousTo));
+        return saved;
     }
 
 
@@ -168,37 +199,73 @@ public class ReservationService {
 
     @Transactional(readOnly = true)
     public ReservationDetailsDTO adminGet(Long id) {
-        return ReservationDetailsDTO.from(
-                reservationRepository.findById(id).orElseThrow()
-        );
+        ReservationDetailsRow row = reservationRepository.findDetailsRowById(id).orElseThrow();
+        return ReservationDetailsDTO.from(row, reservationRepository.findAmenityRows(List.of(id)));
     }
+
+    @Transactional(readOnly = true)
     public List<ReservationListDTO> adminGetAll() {
-        return reservationRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"))
+        return toListDtos(
+                reservationRepository.findAllListRows(),
+                reservationRepository.findAllAmenityRows()
+        );
+    }
+
+    /*
+     * Keyset pagination over (createdAt, id), newest first. The first query selects
+     * only the page's (id, createdAt) through the listing indexes, the projections
+     * then read what ReservationListDTO shows; none of it depends on how deep the
+     * page is.
+     */
+    @Transactional(readOnly = true)
+    public ReservationPageDTO adminSearch(ReservationFilter filter, String cursor, int size, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<Reservation> spec = ReservationSpecifications.matching(filter);
+        Specification<Reservation> page = spec;
+        if (cursor != null && !cursor.isBlank()) {
+            ReservationCursor after = ReservationCursor.decode(cursor);
+            page = spec.and(ReservationSpecifications.after(after.createdAt(), after.id()));
+        }
+
+        List<ReservationKey> keys = reservationRepository.findBy(page, q -> q
+                .as(ReservationKey.class)
+                .sortBy(ReservationSpecifications.NEWEST_FIRST)
+                .limit(limit + 1)
+                .all());
+        boolean hasMore = keys.size() > limit;
+        if (hasMore) {
+            keys = keys.subList(0, limit);
+        }
+
+        Map<Long, ReservationListRow> loaded = reservationRepository
+                .findListRowsByIdIn(keys.stream().map(ReservationKey::getId).toList())
                 .stream()
-                .map(ReservationListDTO::from)
-                .toList();
+                .collect(Collectors.toMap(ReservationListRow::id, Function.identity()));
+        List<ReservationListDTO> items = toListDtos(
+                keys.stream().map(k -> loaded.get(k.getId())).toList(),
+                reservationRepository.findAmenityRows(loaded.keySet())
+        );
+
+        ReservationKey last = keys.isEmpty() ? null : keys.get(keys.size() - 1);
+        return new ReservationPageDTO(
+                items,
+                hasMore ? new ReservationCursor(last.getCreatedAt(), last.getId()).encode() : null,
+                withTotal ? reservationRepository.count(spec) : null
+        );
     }
 
     public void confirm(Long id, String username) {
         User admin = resolveUser(username);
         Reservation r = getReservation(id);
 
-        List<Reservation> conflicts =
-                reservationRepository.findConfirmedOverlaps(
-                        r.getUnit().getId(),
-                        r.getDateFrom(),
-                        r.getDateTo()
-                );
-
-        if (!conflicts.isEmpty()) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST,
-                    "Unit is already booked in selected period"
-            );
-        }
+        // the unique (unit, night) key decides, also against confirmations made by other instances
+        nightLedger.book(r);
         r.setStatus(ReservationStatus.CONFIRMED);
         r.setProcessedAt(Instant.now());
         r.setProcessedBy(admin);
+        availabilityIndex.sync(r);
+        events.publishEvent(ReservationChangedEvent.of(r.getId(), r.getDateFrom(), r.getDateTo()));
 
         emailService.sendReservationConfirmed(
                 r.getUser().getEmail(),
@@ -223,21 +290,15 @@ public class ReservationService {
 
 
         // Update dates if provided
+        LocalDate previousFrom = r.getDateFrom();
+        LocalDate previousTo = r.getDateTo();
         if (dto.getDateFrom() != null) r.setDateFrom(dto.getDateFrom());
         if (dto.getDateTo() != null) r.setDateTo(dto.getDateTo());
         r.setProcessedAt(Instant.now());
         r.setProcessedBy(admin);
 
 
-        List<Reservation> conflicts =
-                reservationRepository.findConfirmedOverlapsExcludingSelf(
-                        r.getUnit().getId(),
-                        r.getDateFrom(),
-                        r.getDateTo(),
-                        r.getId()
-                );
-
-        if (!conflicts.isEmpty()) {
+        if (isBookedByOthers(r)) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "Unit is already booked in selected period"
@@ -250,7 +311,11 @@ public class ReservationService {
                 r.getDateFrom(),
                 r.getDateTo()
         );
-        return reservationRepository.save(r);
+        Reservation saved = reservationRepository.save(r);
+        availabilityIndex.sync(saved);
+        events.publishEvent(new ReservationChangedEvent(
+                saved.getId(), saved.getDateFrom(), saved.getDateTo(), previousFrom, previousTo));
+        return saved;
     }
 
 
@@ -258,9 +323,14 @@ public class ReservationService {
         User admin = resolveUser(username);
         Reservation r = getReservation(id);
 
+        if (r.getStatus() == ReservationStatus.CONFIRMED) {
+            nightLedger.release(r.getId());
+        }
         r.setStatus(ReservationStatus.REJECTED);
         r.setProcessedAt(Instant.now());
         r.setProcessedBy(admin);
+        availabilityIndex.sync(r);
+        events.publishEvent(ReservationChangedEvent.of(r.getId(), r.getDateFrom(), r.getDateTo()));
 
         emailService.sendReservationRejected(
                 r.getUser().getEmail(),
@@ -271,31 +341,67 @@ public class ReservationService {
 
     // ================= INTERNAL =================
 
+    // one IN query for all requested add-ons instead of a findById per item
+    private Map<Long, Amenity> amenitiesById(List<Long> ids) {
+        Map<Long, Amenity> result = new HashMap<>();
+        for (Amenity amenity : amenityRepository.findAllById(ids.stream().filter(Objects::nonNull).distinct().toList())) {
+            result.put(amenity.getId(), amenity);
+        }
+        return result;
+    }
+
+    /*
+     * Amenities come from their own projection filtered like the reservations
+     * (by user, all, or the page's ids) and are grouped here, instead of an
+     * IN list with every reservation id of a full listing.
+     */
+    private List<ReservationListDTO> toListDtos(List<ReservationListRow> rows,
+                                                List<ReservationAmenityRow> amenityRows) {
+        Map<Long, List<ReservationAmenityRow>> amenities = new HashMap<>();
+        for (ReservationAmenityRow row : amenityRows) {
+            amenities.computeIfAbsent(row.reservationId(), k -> new ArrayList<>()).add(row);
+        }
+        return rows.stream()
+                .map(row -> ReservationListDTO.from(row, amenities.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
     private AccommodationUnit findFreeUnit(
             Long categoryId,
             LocalDate from,
             LocalDate to
     ) {
-        List<AccommodationUnit> units =
-                unitRepository.findByCategoryId(categoryId);
-
-        for (AccommodationUnit unit : units) {
-            boolean hasConflict =
-                    !reservationRepository
-                            .findConfirmedOverlaps(unit.getId(), from, to)
-                            .isEmpty();
-
-            if (!hasConflict) {
-                return unit;
-            }
-        }
+        return unitRepository.lockFreeUnits(categoryId, from, to, FIRST_UNIT)
+                .stream()
+                .findFirst()
+                .orElseThrow(this::noAvailableUnits);
+    }
 
-        throw new ResponseStatusException(
+    private ResponseStatusException noAvailableUnits() {
+        return new ResponseStatusException(
                 HttpStatus.BAD_REQUEST,
                 "No available units for selected category and period"
         );
     }
 
+    /*
+     * Checked in the database while holding the unit's row lock, not in the
+     * AvailabilityIndex: that only sees this instance's writes, so a stay
+     * rejected or moved elsewhere could still look taken. Writers of one unit
+     * queue up, other units are not affected.
+     */
+    private boolean isBookedByOthers(Reservation r) {
+        Long unitId = r.getUnit().getId();
+        lockUnit(unitId);
+        return reservationRepository.existsOverlapExcludingSelf(
+                unitId, r.getDateFrom(), r.getDateTo(), r.getId());
+    }
+
+    private void lockUnit(Long unitId) {
+        unitRepository.lockById(unitId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unit not found"));
+    }
+
     private Reservation getReservation(Long id) {
         return reservationRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
@@ -0,0 +1,117 @@
+package com.quantumhotel.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Finished statistics reports keyed by (startDate, endDate, catalog version),
+ * shared by the JSON endpoint and every export format.
+ * <p>
+ * The catalog version moves with every category or add-on change, so
+ * reports priced or named with an old catalog are simply no longer found.
+ * Reservation changes drop the reports whose range they overlap, once when
+ * the change commits and, with the rollup on, again when StatisticsRollup
+ * has recomputed the arrival days. Concurrent misses on one key wait for a
+ * single computation; a computation that was running when its range changed
+ * is handed to its callers but not kept.
+ * <p>
+ * Published as the {@code cache.*} meters tagged {@code cache=statistics.report}.
+ */
+@Component
+public class StatisticsCache {
+
+    record Key(LocalDate startDate, LocalDate endDate, long catalogVersion) {
+        boolean covers(LocalDate day) {
+            return !day.isBefore(startDate) && !day.isAfter(endDate);
+        }
+    }
+
+    private static final class Load {
+        final Key key;
+        volatile boolean stale;
+
+        Load(Key key) {
+            this.key = key;
+        }
+    }
+
+    private final Cache<Key, HotelStatisticsDTO> cache;
+    private final Set<Load> loading = ConcurrentHashMap.newKeySet();
+    private final ContentVersions contentVersions;
+
+    public StatisticsCache(
+            ContentVersions contentVersions,
+            MeterRegistry meterRegistry,
+            @Value("${app.statistics.cache.max-entries:100}") long maxEntries,
+            @Value("${app.statistics.cache.ttl:10m}") Duration ttl
+    ) {
+        this.contentVersions = contentVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "statistics.report");
+    }
+
+    public HotelStatisticsDTO get(LocalDate startDate, LocalDate endDate, Supplier<HotelStatisticsDTO> loader) {
+        Key key = new Key(startDate, endDate, catalogVersion());
+        Load load = new Load(key);
+        HotelStatisticsDTO result;
+        try {
+            result = cache.get(key, k -> {
+                loading.add(load);
+                return loader.get();
+            });
+        } finally {
+            loading.remove(load);
+        }
+        if (load.stale) {
+            cache.asMap().remove(key, result);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        invalidate(key -> event.overlaps(key.startDate(), key.endDate().plusDays(1)));
+    }
+
+    // arrival days StatisticsRollup has just recomputed
+    public void invalidateArrivals(Collection<LocalDate> arrivals) {
+        invalidate(key -> arrivals.stream().anyMatch(key::covers));
+    }
+
+    public void invalidateAll() {
+        invalidate(key -> true);
+    }
+
+    private void invalidate(Predicate<Key> affected) {
+        cache.asMap().keySet().removeIf(affected);
+        for (Load load : loading) {
+            if (affected.test(load.key)) {
+                load.stale = true;
+            }
+        }
+    }
+
+    private long catalogVersion() {
+        // both counters only grow, so their sum changes whenever either does
+        return contentVersions.current(ContentVersions.Collection.CATEGORIES).version()
+                + contentVersions.current(ContentVersions.Collection.AMENITIES).version();
+    }
+}
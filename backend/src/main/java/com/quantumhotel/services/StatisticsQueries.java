@@ -0,0 +1,84 @@
+package com.quantumhotel.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent aggregate queries of one statistics report side by
+ * side, each in its own read-only transaction on a pool of
+ * {@code app.statistics.query-threads} threads, so a report takes about as
+ * long as its slowest query. The pool size is also the most connections
+ * reports can hold at once.
+ * <p>
+ * Called inside a transaction, queries run one after another on the calling
+ * thread instead, so they see what that transaction sees.
+ * <p>
+ * Every query is timed as {@code statistics.query} tagged with its source
+ * (raw or rollup) and name.
+ */
+@Component
+public class StatisticsQueries {
+
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnly;
+    private final MeterRegistry meterRegistry;
+
+    public StatisticsQueries(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.statistics.query-threads:4}") int threads
+    ) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "statistics-query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> CompletableFuture<T> submit(String source, String name, Supplier<T> query) {
+        Timer timer = Timer.builder("statistics.query")
+                .tag("source", source)
+                .tag("query", name)
+                .description("Time to run one statistics report query")
+                .register(meterRegistry);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return CompletableFuture.completedFuture(timer.record(query));
+        }
+        return CompletableFuture.supplyAsync(() -> timer.record(() -> readOnly.execute(status -> query.get())),
+                executor);
+    }
+
+    // waits for a submitted query, rethrowing what it threw
+    public static <T> T join(CompletableFuture<T> query) {
+        try {
+            return query.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,208 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.DailyAmenityStat;
+import com.quantumhotel.entity.DailyGuestStat;
+import com.quantumhotel.entity.DailyStat;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.DailyAmenityStatRepository;
+import com.quantumhotel.repository.DailyGuestStatRepository;
+import com.quantumhotel.repository.DailyStatRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the daily_stats, daily_amenity_stats and daily_guest_stats
+ * rollups the statistics report is summed from. Rows are keyed by arrival
+ * day; once a reservation change commits, its old and new arrival days are
+ * recomputed from the reservations arriving those days, every
+ * {@code app.statistics.rollup.refresh-interval} ms. The whole rollup is
+ * rebuilt, a month of arrivals at a time, at startup and by a nightly job,
+ * which also moves guests into their current age group.
+ * <p>
+ * With {@code app.statistics.rollup.enabled=false} nothing is maintained and
+ * StatisticsService reads raw reservations.
+ */
+@Service
+@Transactional
+public class StatisticsRollup {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private final DailyStatRepository dailyStatRepository;
+    private final DailyAmenityStatRepository dailyAmenityStatRepository;
+    private final DailyGuestStatRepository dailyGuestStatRepository;
+    private final StatisticsCache statisticsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Set<LocalDate> changedArrivals = ConcurrentHashMap.newKeySet();
+
+    public StatisticsRollup(
+            DailyStatRepository dailyStatRepository,
+            DailyAmenityStatRepository dailyAmenityStatRepository,
+            DailyGuestStatRepository dailyGuestStatRepository,
+            StatisticsCache statisticsCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.statistics.rollup.enabled:true}") boolean enabled
+    ) {
+        this.dailyStatRepository = dailyStatRepository;
+        this.dailyAmenityStatRepository = dailyAmenityStatRepository;
+        this.dailyGuestStatRepository = dailyGuestStatRepository;
+        this.statisticsCache = statisticsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+     * Only remembers the arrival days; holding on to the committing request's
+     * connection while opening another one would drain the pool under load.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        changedArrivals.add(event.from());
+        changedArrivals.add(event.previousFrom());
+    }
+
+    @Scheduled(fixedDelayString = "${app.statistics.rollup.refresh-interval:5000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized void refreshChanged() {
+        if (changedArrivals.isEmpty()) {
+            return;
+        }
+        List<LocalDate> days = new ArrayList<>(changedArrivals);
+        changedArrivals.removeAll(days);
+        try {
+            transactionTemplate.executeWithoutResult(status -> days.forEach(this::refresh));
+            statisticsCache.invalidateArrivals(days);
+        } catch (RuntimeException e) {
+            changedArrivals.addAll(days);
+            System.out.println("Statistics rollup refresh of " + days.size() + " days failed, retrying: "
+                    + e.getMessage());
+        }
+    }
+
+    public void refresh(LocalDate arrival) {
+        recompute(arrival, arrival);
+    }
+
+    /*
+     * Recomputes one month of arrivals per transaction, so neither memory nor
+     * the transaction grows with the reservation table. Holds the refresh lock
+     * throughout, changes meanwhile are refreshed once it is done. Joins the
+     * caller's transaction if there is one, otherwise each month commits
+     * before the cached reports are dropped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.statistics.rollup.rebuild-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Object[] bounds = dailyStatRepository.findArrivalBounds().get(0);
+        int rows;
+        if (bounds[0] == null) {
+            rows = transactionTemplate.execute(status -> recompute(FIRST_DAY, LAST_DAY));
+        } else {
+            LocalDate first = (LocalDate) bounds[0];
+            LocalDate last = (LocalDate) bounds[1];
+            // rows of arrivals no reservation has any more
+            transactionTemplate.executeWithoutResult(status -> {
+                deleteArrivals(FIRST_DAY, first.minusDays(1));
+                deleteArrivals(last.plusDays(1), LAST_DAY);
+            });
+            rows = 0;
+            for (LocalDate month = first.withDayOfMonth(1); !month.isAfter(last); month = month.plusMonths(1)) {
+                LocalDate from = month;
+                LocalDate to = month.plusMonths(1).minusDays(1);
+                rows += transactionTemplate.execute(status -> recompute(from, to));
+            }
+        }
+        statisticsCache.invalidateAll();
+        System.out.println("Statistics rollup rebuilt: " + rows + " rows in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    // replaces every rollup row for arrivals in [first, last], returns the number of rows written
+    private int recompute(LocalDate first, LocalDate last) {
+        deleteArrivals(first, last);
+
+        List<DailyStat> stats = new ArrayList<>();
+        for (Object[] r : dailyStatRepository.aggregateReservations(first, last)) {
+            stats.add(new DailyStat((LocalDate) r[0], (LocalDate) r[1], (Long) r[2],
+                    (ReservationStatus) r[3], ((Number) r[4]).longValue()));
+        }
+
+        List<DailyAmenityStat> amenities = new ArrayList<>();
+        for (Object[] r : dailyAmenityStatRepository.aggregateConfirmedAmenities(first, last)) {
+            amenities.add(new DailyAmenityStat((LocalDate) r[0], (LocalDate) r[1], (Long) r[2],
+                    ((Number) r[3]).longValue()));
+        }
+
+        // the query groups by date of birth, several of those end up in one age group
+        Map<DailyGuestStat.Key, DailyGuestStat> guests = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (Object[] r : dailyGuestStatRepository.aggregateGuests(first, last)) {
+            LocalDate arrival = (LocalDate) r[0];
+            LocalDate departure = (LocalDate) r[1];
+            long count = ((Number) r[5]).longValue();
+            if (r[2] != null) {
+                addGuests(guests, arrival, departure, DailyGuestStat.Dimension.CITY, (String) r[2], count);
+            }
+            addGuests(guests, arrival, departure, DailyGuestStat.Dimension.GENDER,
+                    r[3] != null ? r[3].toString() : "UNKNOWN", count);
+            if (r[4] != null) {
+                int age = Period.between((LocalDate) r[4], today).getYears();
+                addGuests(guests, arrival, departure, DailyGuestStat.Dimension.AGE_GROUP,
+                        StatisticsService.getAgeGroup(age), count);
+            }
+        }
+
+        dailyStatRepository.saveAll(stats);
+        dailyAmenityStatRepository.saveAll(amenities);
+        dailyGuestStatRepository.saveAll(guests.values());
+        return stats.size() + amenities.size() + guests.size();
+    }
+
+    private void deleteArrivals(LocalDate first, LocalDate last) {
+        dailyStatRepository.deleteArrivals(first, last);
+        dailyAmenityStatRepository.deleteArrivals(first, last);
+        dailyGuestStatRepository.deleteArrivals(first, last);
+    }
+
+    private static void addGuests(Map<DailyGuestStat.Key, DailyGuestStat> guests, LocalDate arrival,
+                                  LocalDate departure, DailyGuestStat.Dimension dimension, String value, long count) {
+        DailyGuestStat stat = guests.computeIfAbsent(
+                new DailyGuestStat.Key(arrival, departure, dimension, value),
+                key -> new DailyGuestStat(arrival, departure, dimension, value, 0)
+        );
+        stat.setReservations(stat.getReservations() + count);
+    }
+}
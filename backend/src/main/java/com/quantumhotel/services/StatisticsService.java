@@ -2,26 +2,42 @@ package com.quantumhotel.services;
 
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
 import com.quantumhotel.repository.AccommodationCategoryRepository;
+import com.quantumhotel.entity.DailyGuestStat;
+import com.quantumhotel.entity.ReservationStatus;
 import com.quantumhotel.repository.AmenityRepository;
+import com.quantumhotel.repository.DailyAmenityStatRepository;
+import com.quantumhotel.repository.DailyGuestStatRepository;
+import com.quantumhotel.repository.DailyStatRepository;
+import com.quantumhotel.repository.ReservationExportRow;
+import com.quantumhotel.repository.ReservationFactRow;
+import com.quantumhotel.repository.ReservationLineRow;
 import com.quantumhotel.repository.ReservationRepository;
 import com.quantumhotel.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.quantumhotel.services.StatisticsQueries.join;
 
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.Period;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class StatisticsService {
 
+    static final int[] AGE_LIMITS = {18, 25, 35, 45, 55, 65};
+    static final String[] AGE_GROUPS = {"Under 18", "18-24", "25-34", "35-44", "45-54", "55-64", "65+"};
+
     @Autowired
     private ReservationRepository reservationRepository;
 
@@ -34,81 +50,197 @@ public class StatisticsService {
     @Autowired
     private AmenityRepository amenityRepository;
 
+    @Autowired
+    private StatisticsRollup statisticsRollup;
+
+    @Autowired
+    private StatisticsCache statisticsCache;
+
+    @Autowired
+    private StatisticsQueries statisticsQueries;
+
+    @Autowired
+    private DailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private DailyAmenityStatRepository dailyAmenityStatRepository;
+
+    @Autowired
+    private DailyGuestStatRepository dailyGuestStatRepository;
+
+    // shared by the JSON endpoint and the exports, computed once per range until something in it changes
     public HotelStatisticsDTO generateStatistics(LocalDate startDate, LocalDate endDate) {
-        HotelStatisticsDTO stats = new HotelStatisticsDTO(startDate, endDate);
+        return statisticsCache.get(startDate, endDate, () -> computeStatistics(startDate, endDate));
+    }
 
-        // Get all reservations in the date range
-        List<Object[]> reservations = reservationRepository.findReservationsInDateRange(startDate, endDate);
+    // hands every reservation of the range to the action one row at a time, none of them is kept
+    @Transactional(readOnly = true)
+    public void forEachReservation(LocalDate startDate, LocalDate endDate, Consumer<ReservationExportRow> action) {
+        try (Stream<ReservationExportRow> rows = reservationRepository.streamExportRows(startDate, endDate)) {
+            rows.forEach(action);
+        }
+    }
 
-        // Calculate basic statistics
-        stats.setTotalReservations(reservations.size());
+    // same for the reservations with their add-on lines
+    @Transactional(readOnly = true)
+    public void forEachReservationLine(LocalDate startDate, LocalDate endDate, Consumer<ReservationLineRow> action) {
+        try (Stream<ReservationLineRow> rows = reservationRepository.streamLineRows(startDate, endDate)) {
+            rows.forEach(action);
+        }
+    }
 
-        long completedCount = reservations.stream()
-                .filter(r -> "CONFIRMED".equals(r[5].toString())) // res_status
-                .count();
-        System.out.println(completedCount);
-        stats.setCompletedReservations((int) completedCount);
+    // and for one fact row per reservation, the add-ons summed up
+    @Transactional(readOnly = true)
+    public void forEachReservationFact(LocalDate startDate, LocalDate endDate, Consumer<ReservationFactRow> action) {
+        try (Stream<ReservationFactRow> rows = reservationRepository.streamFactRows(startDate, endDate)) {
+            rows.forEach(action);
+        }
+    }
 
-        long cancelledCount = reservations.stream()
-                .filter(r -> "REJECTED".equals(r[5].toString()))
-                .count();
-        stats.setCancelledReservations((int) cancelledCount);
+    private HotelStatisticsDTO computeStatistics(LocalDate startDate, LocalDate endDate) {
+        if (statisticsRollup.isEnabled()) {
+            return generateFromRollup(startDate, endDate);
+        }
 
-        // Calculate revenue
-        BigDecimal roomRevenue = calculateTotalRevenue(reservations);
-        BigDecimal amenityRevenue = calculateAmenityRevenue(startDate, endDate);
-        stats.setTotalRevenue(roomRevenue.add(amenityRevenue));
+        // the queries are independent, started together and joined below
+        CompletableFuture<List<Object[]>> stays = statisticsQueries.submit("raw", "stays",
+                () -> reservationRepository.sumStaysByStatus(startDate, endDate));
+        CompletableFuture<List<Object[]>> popularAmenities = statisticsQueries.submit("raw", "amenities",
+                () -> amenityRepository.findPopularAmenities(startDate, endDate));
+        CompletableFuture<List<HotelStatisticsDTO.AccommodationStats>> topAccommodations = statisticsQueries.submit(
+                "raw", "accommodations", () -> getTopAccommodations(startDate, endDate));
+        CompletableFuture<Map<String, Integer>> byCity = statisticsQueries.submit("raw", "cities",
+                () -> countByCity(startDate, endDate));
+        CompletableFuture<Map<String, Integer>> byGender = statisticsQueries.submit("raw", "genders",
+                () -> countByGender(startDate, endDate));
+        CompletableFuture<Map<String, Integer>> byAgeGroup = statisticsQueries.submit("raw", "age-groups",
+                () -> countByAgeGroup(startDate, endDate));
 
-        // Calculate average stay duration
-        BigDecimal avgDuration = calculateAverageStayDuration(reservations);
-        stats.setAverageStayDuration(avgDuration);
+        HotelStatisticsDTO stats = new HotelStatisticsDTO(startDate, endDate);
 
-        // Demographics - by city
-        Map<String, Integer> byCity = groupReservationsByCity(reservations);
-        stats.setReservationsByCity(byCity);
+        // Counts, nights and room revenue per status
+        long total = 0;
+        long nights = 0;
+        BigDecimal roomRevenue = BigDecimal.ZERO;
+        for (Object[] r : join(stays)) {
+            int count = ((Number) r[1]).intValue();
+            total += count;
+            nights += r[2] != null ? ((Number) r[2]).longValue() : 0;
+            if (r[3] != null) {
+                roomRevenue = roomRevenue.add((BigDecimal) r[3]);
+            }
+            if (r[0] == ReservationStatus.CONFIRMED) {
+                stats.setCompletedReservations(count);
+            } else if (r[0] == ReservationStatus.REJECTED) {
+                stats.setCancelledReservations(count);
+            }
+        }
+        stats.setTotalReservations((int) total);
 
-        // Demographics - by gender
-        Map<String, Integer> byGender = groupReservationsByGender(reservations);
-        stats.setReservationsByGender(byGender);
+        // Calculate revenue
+        List<Object[]> amenities = join(popularAmenities);
+        BigDecimal amenityRevenue = calculateAmenityRevenue(amenities);
+        stats.setTotalRevenue(roomRevenue.setScale(2, RoundingMode.HALF_UP).add(amenityRevenue));
 
-        // Demographics - by age group
-        Map<String, Integer> byAge = groupReservationsByAgeGroup(reservations);
-        stats.setReservationsByAgeGroup(byAge);
+        // Calculate average stay duration
+        stats.setAverageStayDuration(total == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(nights).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP));
+
+        // Demographics
+        stats.setReservationsByCity(join(byCity));
+        stats.setReservationsByGender(join(byGender));
+        stats.setReservationsByAgeGroup(join(byAgeGroup));
 
         // Top accommodations
-        List<HotelStatisticsDTO.AccommodationStats> topAccommodations = getTopAccommodations(startDate, endDate);
-        stats.setTopAccommodations(topAccommodations);
+        stats.setTopAccommodations(join(topAccommodations));
 
         // Popular amenities
-        List<HotelStatisticsDTO.AmenityStats> popularAmenities = getPopularAmenities(startDate, endDate);
-        stats.setPopularAmenities(popularAmenities);
+        stats.setPopularAmenities(getPopularAmenities(amenities));
 
         return stats;
     }
 
-    private BigDecimal calculateTotalRevenue(List<Object[]> reservations) {
-        return reservations.stream()
-                .filter(r -> "CONFIRMED".equals(r[5].toString()))
-                .map(r -> {
-                    LocalDate from = (LocalDate) r[1]; // res_date_from
-                    LocalDate to = (LocalDate) r[2];   // res_date_to
-                    BigDecimal pricePerNight = (BigDecimal) r[8];
+    /*
+     * Same report summed from the daily rollups (see StatisticsRollup): the work
+     * depends on the number of rollup rows in the range, not on the number of
+     * reservations. Prices are joined in at read time, as in the raw report.
+     */
+    private HotelStatisticsDTO generateFromRollup(LocalDate startDate, LocalDate endDate) {
+        CompletableFuture<List<Object[]>> stays = statisticsQueries.submit("rollup", "stays",
+                () -> dailyStatRepository.sumByStatus(startDate, endDate));
+        CompletableFuture<List<Object[]>> categories = statisticsQueries.submit("rollup", "accommodations",
+                () -> dailyStatRepository.sumConfirmedByCategory(startDate, endDate));
+        CompletableFuture<List<Object[]>> amenityUsage = statisticsQueries.submit("rollup", "amenities",
+                () -> dailyAmenityStatRepository.sumByAmenity(startDate, endDate));
+        CompletableFuture<List<Object[]>> guests = statisticsQueries.submit("rollup", "guests",
+                () -> dailyGuestStatRepository.sumByDimension(startDate, endDate));
 
-                    if (from == null || to == null || pricePerNight == null) {
-                        return BigDecimal.ZERO;
-                    }
+        HotelStatisticsDTO stats = new HotelStatisticsDTO(startDate, endDate);
 
-                    long nights = java.time.temporal.ChronoUnit.DAYS.between(from, to);
-                    if (nights <= 0) return BigDecimal.ZERO;
+        long total = 0;
+        long nights = 0;
+        for (Object[] r : join(stays)) {
+            int count = ((Number) r[1]).intValue();
+            total += count;
+            nights += ((Number) r[2]).longValue();
+            if (r[0] == ReservationStatus.CONFIRMED) {
+                stats.setCompletedReservations(count);
+            } else if (r[0] == ReservationStatus.REJECTED) {
+                stats.setCancelledReservations(count);
+            }
+        }
+        stats.setTotalReservations((int) total);
+        stats.setAverageStayDuration(total == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(nights).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP));
 
-                    return pricePerNight.multiply(BigDecimal.valueOf(nights));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+        List<HotelStatisticsDTO.AccommodationStats> accommodations = join(categories).stream()
+                .map(r -> new HotelStatisticsDTO.AccommodationStats(
+                        (String) r[0],
+                        ((Number) r[1]).intValue(),
+                        (BigDecimal) r[2]
+                ))
+                .toList();
+        List<HotelStatisticsDTO.AmenityStats> amenities = join(amenityUsage).stream()
+                .map(r -> new HotelStatisticsDTO.AmenityStats(
+                        (String) r[0],
+                        ((Number) r[1]).intValue(),
+                        (BigDecimal) r[2]
+                ))
+                .toList();
+        BigDecimal roomRevenue = accommodations.stream()
+                .map(HotelStatisticsDTO.AccommodationStats::getTotalRevenue)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal amenityRevenue = amenities.stream()
+                .map(HotelStatisticsDTO.AmenityStats::getTotalRevenue)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        stats.setTotalRevenue(roomRevenue.setScale(2, RoundingMode.HALF_UP)
+                .add(amenityRevenue.setScale(2, RoundingMode.HALF_UP)));
+        stats.setTopAccommodations(accommodations.stream().limit(10).collect(Collectors.toList()));
+        stats.setPopularAmenities(amenities.stream().limit(10).collect(Collectors.toList()));
+
+        Map<String, Integer> byCity = new HashMap<>();
+        Map<String, Integer> byGender = new HashMap<>();
+        Map<String, Integer> byAge = new HashMap<>();
+        for (Object[] r : join(guests)) {
+            Map<String, Integer> target = switch ((DailyGuestStat.Dimension) r[0]) {
+                case CITY -> byCity;
+                case GENDER -> byGender;
+                case AGE_GROUP -> byAge;
+            };
+            target.put((String) r[1], ((Number) r[2]).intValue());
+        }
+        stats.setReservationsByCity(byCity);
+        stats.setReservationsByGender(byGender);
+        stats.setReservationsByAgeGroup(byAge);
+
+        return stats;
     }
-    private BigDecimal calculateAmenityRevenue(LocalDate startDate, LocalDate endDate) {
-        List<Object[]> amenities = amenityRepository.findPopularAmenities(startDate, endDate);
 
+    private BigDecimal calculateAmenityRevenue(List<Object[]> amenities) {
         return amenities.stream()
                 .map(r -> (BigDecimal) r[2]) // revenue
                 .filter(Objects::nonNull)
@@ -116,70 +248,47 @@ public class StatisticsService {
                 .setScale(2, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal calculateAverageStayDuration(List<Object[]> reservations) {
-        if (reservations.isEmpty()) {
-            return BigDecimal.ZERO;
+    private Map<String, Integer> countByCity(LocalDate startDate, LocalDate endDate) {
+        Map<String, Integer> byCity = new HashMap<>();
+        for (Object[] r : reservationRepository.countByCity(startDate, endDate)) {
+            byCity.put((String) r[0], ((Number) r[1]).intValue());
         }
-
-        long totalDays = reservations.stream()
-                .mapToLong(r -> {
-                    LocalDate from = (LocalDate) r[1];
-                    LocalDate to = (LocalDate) r[2];
-
-                    if (from == null || to == null) return 0;
-
-                    return java.time.temporal.ChronoUnit.DAYS.between(from, to);
-                })
-                .sum();
-
-        return BigDecimal.valueOf(totalDays)
-                .divide(BigDecimal.valueOf(reservations.size()), 2, RoundingMode.HALF_UP);
+        return byCity;
     }
 
-
-    private Map<String, Integer> groupReservationsByCity(List<Object[]> reservations) {
-        return reservations.stream()
-                .map(r -> (String) r[6]) // usr_city
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(
-                        city -> city,
-                        Collectors.summingInt(e -> 1)
-                ));
-    }
-
-    private Map<String, Integer> groupReservationsByGender(List<Object[]> reservations) {
-        return reservations.stream()
-                .map(r -> r[7] != null ? r[7].toString() : "UNKNOWN") // usr_gender
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(
-                        gender -> gender,
-                        Collectors.summingInt(e -> 1)
-                ));
+    private Map<String, Integer> countByGender(LocalDate startDate, LocalDate endDate) {
+        Map<String, Integer> byGender = new HashMap<>();
+        for (Object[] r : reservationRepository.countByGender(startDate, endDate)) {
+            byGender.put(r[0] != null ? r[0].toString() : "UNKNOWN", ((Number) r[1]).intValue());
+        }
+        return byGender;
     }
 
-    private Map<String, Integer> groupReservationsByAgeGroup(List<Object[]> reservations) {
-        Map<String, Integer> ageGroups = new HashMap<>();
-
-        for (Object[] r : reservations) {
-            LocalDate birthDate = (LocalDate) r[9]; // usr_date_of_birth
-            if (birthDate != null) {
-                int age = Period.between(birthDate, LocalDate.now()).getYears();
-                String ageGroup = getAgeGroup(age);
-                ageGroups.merge(ageGroup, 1, Integer::sum);
+    private Map<String, Integer> countByAgeGroup(LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        LocalDate[] bornBy = new LocalDate[AGE_LIMITS.length];
+        for (int i = 0; i < AGE_LIMITS.length; i++) {
+            bornBy[i] = today.minusYears(AGE_LIMITS[i]);
+        }
+        Object[] counts = reservationRepository.countByAgeGroup(startDate, endDate,
+                bornBy[0], bornBy[1], bornBy[2], bornBy[3], bornBy[4], bornBy[5]).get(0);
+
+        Map<String, Integer> byAge = new HashMap<>();
+        for (int i = 0; i < AGE_GROUPS.length; i++) {
+            int count = counts[i] != null ? ((Number) counts[i]).intValue() : 0;
+            if (count > 0) {
+                byAge.put(AGE_GROUPS[i], count);
             }
         }
-
-        return ageGroups;
+        return byAge;
     }
 
-    private String getAgeGroup(int age) {
-        if (age < 18) return "Under 18";
-        if (age < 25) return "18-24";
-        if (age < 35) return "25-34";
-        if (age < 45) return "35-44";
-        if (age < 55) return "45-54";
-        if (age < 65) return "55-64";
-        return "65+";
+    public static String getAgeGroup(int age) {
+        int group = 0;
+        while (group < AGE_LIMITS.length && age >= AGE_LIMITS[group]) {
+            group++;
+        }
+        return AGE_GROUPS[group];
     }
 
     private List<HotelStatisticsDTO.AccommodationStats> getTopAccommodations(LocalDate startDate, LocalDate endDate) {
@@ -195,10 +304,8 @@ public class StatisticsService {
                 .collect(Collectors.toList());
     }
 
-    private List<HotelStatisticsDTO.AmenityStats> getPopularAmenities(LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = amenityRepository.findPopularAmenities(startDate, endDate);
-
-        return results.stream()
+    private List<HotelStatisticsDTO.AmenityStats> getPopularAmenities(List<Object[]> amenities) {
+        return amenities.stream()
                 .map(r -> new HotelStatisticsDTO.AmenityStats(
                         (String) r[0], // amenity name
                         ((Number) r[1]).intValue(), // usage count
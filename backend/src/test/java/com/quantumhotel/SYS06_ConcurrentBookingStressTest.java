@@ -0,0 +1,226 @@
+package com.quantumhotel;
+
+import com.quantumhotel.controllers.dto.ReservationCreateDTO;
+import com.quantumhotel.controllers.dto.ReservationPatchDto;
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.repository.AccommodationCategoryRepository;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import com.quantumhotel.repository.ReservationRepository;
+import com.quantumhotel.repository.UserRepository;
+import com.quantumhotel.services.AvailabilityIndex;
+import com.quantumhotel.services.EmailService;
+import com.quantumhotel.services.ReservationService;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vise niti istovremeno radi create/confirm/patch nad malim brojem soba.
+ * Na kraju ne smiju postojati dvije CONFIRMED rezervacije iste sobe koje se preklapaju.
+ *
+ * Pokretanje:
+ *   mvn test -Dtest=SYS06_ConcurrentBookingStressTest -Dstress.threads=32 -Dstress.ops=200
+ */
+@SpringBootTest(properties = {
+        "app.domain=http://localhost:8080",
+        "app.support.email=support@quantumhotel.com",
+        "spring.datasource.url=jdbc:h2:mem:sys06;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.mail.host=localhost",
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class SYS06_ConcurrentBookingStressTest {
+
+    private static final int UNITS = 4;
+    private static final int GUESTS = 8;
+    private static final int DAYS = 21;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private AccommodationCategoryRepository categoryRepository;
+
+    @Autowired
+    private AccommodationUnitRepository unitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @MockBean
+    private EmailService emailService;
+
+    private record Booking(Long id, String username) { }
+
+    @Test
+    void SYS06_concurrentBooking_shouldNeverDoubleBook() throws Exception {
+        int threads = Integer.getInteger("stress.threads", 16);
+        int opsPerThread = Integer.getInteger("stress.ops", 60);
+
+        Long categoryId = seed();
+
+        List<Booking> bookings = new CopyOnWriteArrayList<>();
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    String op = bookings.isEmpty() ? "create" : pick(random);
+                    try {
+                        run(op, categoryId, bookings, random);
+                        count(outcomes, op + ".ok");
+                    } catch (ResponseStatusException e) {
+                        count(outcomes, op + ".rejected");
+                    } catch (ConcurrencyFailureException e) {
+                        count(outcomes, op + ".conflict");
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        pool.shutdown();
+
+        int total = threads * opsPerThread;
+        System.out.printf("SYS06: %d ops in %.2fs (%.1f ops/s) with %d threads%n",
+                total, seconds, total / seconds, threads);
+        System.out.println("SYS06: " + new TreeMap<>(outcomes));
+
+        List<Object[]> confirmed = reservationRepository.findConfirmedStays();
+        assertFalse(confirmed.isEmpty(), "Ocekivana barem jedna potvrdena rezervacija");
+        assertNoOverlaps(confirmed);
+
+        for (Object[] stay : confirmed) {
+            assertFalse(availabilityIndex.isFree((Long) stay[1], (LocalDate) stay[2], (LocalDate) stay[3]),
+                    "Index ne zna za potvrdenu rezervaciju " + stay[0]);
+        }
+    }
+
+    private void run(String op, Long categoryId, List<Booking> bookings, ThreadLocalRandom random) {
+        LocalDate from = LocalDate.now().plusDays(random.nextInt(DAYS));
+        LocalDate to = from.plusDays(1 + random.nextInt(3));
+
+        switch (op) {
+            case "create" -> {
+                ReservationCreateDTO dto = new ReservationCreateDTO();
+                dto.setCategoryId(categoryId);
+                dto.setDateFrom(from);
+                dto.setDateTo(to);
+                String guest = "guest" + random.nextInt(GUESTS);
+                Reservation saved = reservationService.create(dto, guest);
+                bookings.add(new Booking(saved.getId(), guest));
+            }
+            case "confirm" -> reservationService.confirm(any(bookings, random).id(), "admin");
+            case "patch" -> {
+                Booking b = any(bookings, random);
+                reservationService.patch(b.id(), patch(from, to), b.username());
+            }
+            case "patchAdmin" -> reservationService.patchAdmin(any(bookings, random).id(), patch(from, to), "admin");
+            default -> throw new IllegalStateException(op);
+        }
+    }
+
+    private static String pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(10);
+        if (roll < 4) return "create";
+        if (roll < 7) return "confirm";
+        if (roll < 9) return "patch";
+        return "patchAdmin";
+    }
+
+    private static Booking any(List<Booking> bookings, ThreadLocalRandom random) {
+        return bookings.get(random.nextInt(bookings.size()));
+    }
+
+    private static ReservationPatchDto patch(LocalDate from, LocalDate to) {
+        ReservationPatchDto dto = new ReservationPatchDto();
+        dto.setDateFrom(from);
+        dto.setDateTo(to);
+        return dto;
+    }
+
+    private static void count(Map<String, AtomicInteger> outcomes, String key) {
+        outcomes.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static void assertNoOverlaps(List<Object[]> confirmed) {
+        Map<Long, List<Object[]>> byUnit = confirmed.stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[1]));
+
+        byUnit.forEach((unitId, stays) -> {
+            stays.sort(Comparator.comparing(row -> (LocalDate) row[2]));
+            for (int i = 1; i < stays.size(); i++) {
+                Object[] previous = stays.get(i - 1);
+                Object[] current = stays.get(i);
+                assertFalse(((LocalDate) current[2]).isBefore((LocalDate) previous[3]),
+                        "Soba " + unitId + ": rezervacije " + previous[0] + " i " + current[0] + " se preklapaju");
+            }
+        });
+    }
+
+    private Long seed() {
+        AccommodationCategory category = new AccommodationCategory();
+        category.setName("Stress Test Suite");
+        category.setCapacity(2);
+        category.setUnitsNumber(UNITS);
+        category.setPrice(new BigDecimal("100.00"));
+        category = categoryRepository.save(category);
+
+        for (int i = 0; i < UNITS; i++) {
+            AccommodationUnit unit = new AccommodationUnit();
+            unit.setRoomNumber(600 + i);
+            unit.setFloor(6);
+            unit.setCategory(category);
+            unitRepository.save(unit);
+        }
+
+        for (int i = 0; i < GUESTS; i++) {
+            User guest = new User();
+            guest.setUsername("guest" + i);
+            guest.setEmail("guest" + i + "@quantumhotel.com");
+            guest.setRole(Role.USER);
+            userRepository.save(guest);
+        }
+
+        availabilityIndex.rebuild();
+        return category.getId();
+    }
+}
@@ -0,0 +1,119 @@
+package com.quantumhotel.benchmarks;
+
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import com.quantumhotel.repository.ReservationRepository;
+import com.quantumhotel.users.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 50 concurrent bookers against one category: the set-based
+ * {@code lockFreeUnits} query against the per-unit probing that
+ * ReservationService.create used before.
+ *
+ * SKIP LOCKED only exists on PostgreSQL (H2 degrades it to a plain
+ * FOR UPDATE), so point {@code bench.jdbc.url} at a PostgreSQL for numbers
+ * that matter:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.quantumhotel.benchmarks.AllocationBenchmark \
+ *       -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/bench -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(50)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param({"200"})
+    private int units;
+
+    private BenchmarkDatabase db;
+    private BenchmarkDatabase.Hotel hotel;
+    private ReservationRepository reservationRepository;
+    private AccommodationUnitRepository unitRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkDatabase.start("allocation" + units);
+        hotel = db.seedHotel(units, 0, 0);
+        reservationRepository = db.repository(ReservationRepository.class);
+        unitRepository = db.repository(AccommodationUnitRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropBookings() {
+        db.inTransaction(em -> em.createQuery("DELETE FROM Reservation").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public Long lockFreeUnits() {
+        return book((from, to) -> unitRepository
+                .lockFreeUnits(hotel.categoryId, from, to, PageRequest.of(0, 1))
+                .stream()
+                .findFirst()
+                .orElse(null));
+    }
+
+    @Benchmark
+    public Long probeEveryUnit() {
+        return book((from, to) -> {
+            for (AccommodationUnit unit : unitRepository.findByCategoryId(hotel.categoryId)) {
+                if (reservationRepository.findConfirmedOverlaps(unit.getId(), from, to).isEmpty()) {
+                    return unit;
+                }
+            }
+            return null;
+        });
+    }
+
+    private Long book(Allocator allocator) {
+        int offset = ThreadLocalRandom.current().nextInt(30);
+        LocalDate from = LocalDate.now().plusDays(offset);
+        LocalDate to = from.plusDays(3);
+
+        return db.inTransaction(em -> {
+            AccommodationUnit unit = allocator.allocate(from, to);
+            if (unit == null) {
+                return null;
+            }
+            Reservation r = new Reservation();
+            r.setUser(em.getReference(User.class, hotel.guestId));
+            r.setCategory(em.getReference(AccommodationCategory.class, hotel.categoryId));
+            r.setUnit(unit);
+            r.setDateFrom(from);
+            r.setDateTo(to);
+            r.setStatus(ReservationStatus.PENDING);
+            em.persist(r);
+            return unit.getId();
+        });
+    }
+
+    private interface Allocator {
+        AccommodationUnit allocate(LocalDate from, LocalDate to);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AllocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
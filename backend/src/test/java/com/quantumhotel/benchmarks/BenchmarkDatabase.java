@@ -0,0 +1,163 @@
+package com.quantumhotel.benchmarks;
+
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory H2 database with the application's entity model and real Spring
+ * Data repositories, so benchmarks can run the production JPQL without
+ * starting the whole application context.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private final EntityManagerFactory emf;
+    private final EntityManager entityManager;
+    private final JpaRepositoryFactory repositories;
+    private final TransactionTemplate transactions;
+    private final TransactionTemplate readOnlyTransactions;
+
+    private BenchmarkDatabase(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(emf);
+        this.repositories = new JpaRepositoryFactory(entityManager);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(emf);
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactions = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactions.setReadOnly(true);
+    }
+
+    /**
+     * H2 in memory by default. Pass {@code -Dbench.jdbc.url=jdbc:postgresql://...}
+     * (plus {@code bench.jdbc.user} / {@code bench.jdbc.password}) to run against
+     * a real PostgreSQL; its schema is recreated.
+     */
+    static BenchmarkDatabase start(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("bench.jdbc.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"),
+                System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", "")
+        );
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.quantumhotel.entity", "com.quantumhotel.users");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.jdbc.batch_size", "100",
+                "hibernate.order_inserts", "true"
+        ));
+        factory.afterPropertiesSet();
+        return new BenchmarkDatabase(factory.getObject());
+    }
+
+    <R> R repository(Class<R> type) {
+        return repositories.getRepository(type);
+    }
+
+    /** Repositories returned by {@link #repository} join this transaction. */
+    <T> T inTransaction(Function<EntityManager, T> work) {
+        return transactions.execute(status -> work.apply(entityManager));
+    }
+
+    /** Like {@code @Transactional(readOnly = true)}: no flush, no dirty checking. */
+    <T> T inReadOnlyTransaction(Function<EntityManager, T> work) {
+        return readOnlyTransactions.execute(status -> work.apply(entityManager));
+    }
+
+    /**
+     * One category of {@code units} rooms. Every room but the last is booked
+     * (CONFIRMED) for {@code stayNights} nights out of every
+     * {@code stayNights + 1}, starting today, for {@code horizonDays} days.
+     * With {@code stayNights == 0} every room is free.
+     */
+    Hotel seedHotel(int units, int stayNights, int horizonDays) {
+        Hotel hotel = new Hotel();
+        LocalDate today = LocalDate.now();
+
+        inTransaction(em -> {
+            User guest = new User();
+            guest.setUsername("bench-guest");
+            guest.setEmail("bench-guest@quantumhotel.com");
+            guest.setRole(Role.USER);
+            em.persist(guest);
+
+            AccommodationCategory category = new AccommodationCategory();
+            category.setName("Benchmark Suite");
+            category.setCapacity(2);
+            category.setUnitsNumber(units);
+            category.setPrice(new BigDecimal("120.00"));
+            em.persist(category);
+            hotel.categoryId = category.getId();
+
+            for (int i = 0; i < units; i++) {
+                AccommodationUnit unit = new AccommodationUnit();
+                unit.setRoomNumber(100 + i);
+                unit.setFloor(1 + i / 50);
+                unit.setCategory(category);
+                em.persist(unit);
+                hotel.unitIds.add(unit.getId());
+
+                if (i == units - 1 || stayNights == 0) {
+                    continue;
+                }
+                for (int day = 0; day + stayNights <= horizonDays; day += stayNights + 1) {
+                    Reservation r = new Reservation();
+                    r.setUser(guest);
+                    r.setCategory(category);
+                    r.setUnit(unit);
+                    r.setDateFrom(today.plusDays(day));
+                    r.setDateTo(today.plusDays(day + stayNights));
+                    r.setStatus(ReservationStatus.CONFIRMED);
+                    em.persist(r);
+                }
+                em.flush();
+                em.clear();
+                category = em.find(AccommodationCategory.class, hotel.categoryId);
+                guest = em.find(User.class, guest.getId());
+            }
+            hotel.guestId = guest.getId();
+            return null;
+        });
+        return hotel;
+    }
+
+    @Override
+    public void close() {
+        emf.close();
+    }
+
+    static final class Hotel {
+        Long categoryId;
+        Long guestId;
+        final List<Long> unitIds = new ArrayList<>();
+
+        Long busyUnit() {
+            return unitIds.get(0);
+        }
+
+        Long freeUnit() {
+            return unitIds.get(unitIds.size() - 1);
+        }
+    }
+}
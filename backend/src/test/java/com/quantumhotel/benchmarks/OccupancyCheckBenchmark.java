@@ -0,0 +1,99 @@
+package com.quantumhotel.benchmarks;
+
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import com.quantumhotel.repository.ReservationRepository;
+import com.quantumhotel.services.AvailabilityIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap checks through the JPQL queries ReservationService used before
+ * against the bitset calendar in AvailabilityIndex.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.quantumhotel.benchmarks.OccupancyCheckBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OccupancyCheckBenchmark {
+
+    @Param({"100", "400"})
+    private int units;
+
+    private BenchmarkDatabase db;
+    private BenchmarkDatabase.Hotel hotel;
+    private ReservationRepository reservationRepository;
+    private AccommodationUnitRepository unitRepository;
+    private AvailabilityIndex index;
+
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkDatabase.start("occupancy" + units);
+        hotel = db.seedHotel(units, 3, 365);
+        reservationRepository = db.repository(ReservationRepository.class);
+        unitRepository = db.repository(AccommodationUnitRepository.class);
+
+        index = new AvailabilityIndex(reservationRepository, unitRepository);
+        index.rebuild();
+
+        // every unit except the last one is booked over these nights
+        from = LocalDate.now().plusDays(41);
+        to = from.plusDays(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public boolean jpqlFindConfirmedOverlaps() {
+        return reservationRepository.findConfirmedOverlaps(hotel.busyUnit(), from, to).isEmpty();
+    }
+
+    @Benchmark
+    public boolean jpqlFindConfirmedOverlapsExcludingSelf() {
+        return reservationRepository.findConfirmedOverlapsExcludingSelf(hotel.busyUnit(), from, to, -1L).isEmpty();
+    }
+
+    @Benchmark
+    public boolean bitsetIsFree() {
+        return index.isFree(hotel.busyUnit(), from, to);
+    }
+
+    @Benchmark
+    public Long jpqlProbeEveryUnit() {
+        for (AccommodationUnit unit : unitRepository.findByCategoryId(hotel.categoryId)) {
+            if (reservationRepository.findConfirmedOverlaps(unit.getId(), from, to).isEmpty()) {
+                return unit.getId();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public List<Long> bitsetFreeUnits() {
+        return index.freeUnits(hotel.categoryId, from, to);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OccupancyCheckBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.quantumhotel.benchmarks;
+
+import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.entity.Amenity;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.ReservationAmenity;
+import com.quantumhotel.repository.ReservationAmenityRow;
+import com.quantumhotel.repository.ReservationListRow;
+import com.quantumhotel.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The admin reservation listing read as managed entities (fetch joins, then
+ * ReservationListDTO.from(Reservation)) against the constructor projections
+ * ReservationService uses now. Look at gc.alloc.rate.norm for bytes
+ * allocated per listing.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.quantumhotel.benchmarks.ReservationReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationReadBenchmark {
+
+    private BenchmarkDatabase db;
+    private ReservationRepository reservationRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkDatabase.start("reads");
+        db.seedHotel(20, 3, 400);
+        reservationRepository = db.repository(ReservationRepository.class);
+
+        db.inTransaction(em -> {
+            Amenity breakfast = amenity("Breakfast");
+            Amenity parking = amenity("Parking");
+            em.persist(breakfast);
+            em.persist(parking);
+            for (Reservation r : em.createQuery("SELECT r FROM Reservation r", Reservation.class).getResultList()) {
+                r.addAmenity(reservationAmenity(breakfast, 2));
+                if (r.getId() % 2 == 0) {
+                    r.addAmenity(reservationAmenity(parking, 1));
+                }
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<ReservationListDTO> managedEntities() {
+        return db.inReadOnlyTransaction(em -> em.createQuery("""
+                        SELECT DISTINCT r FROM Reservation r
+                        JOIN FETCH r.user
+                        JOIN FETCH r.category
+                        JOIN FETCH r.unit
+                        LEFT JOIN FETCH r.reservationAmenities ra
+                        LEFT JOIN FETCH ra.amenity
+                        ORDER BY r.createdAt DESC
+                        """, Reservation.class)
+                .getResultStream()
+                .map(ReservationListDTO::from)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ReservationListDTO> projections() {
+        return db.inReadOnlyTransaction(em -> {
+            List<ReservationListRow> rows = reservationRepository.findAllListRows();
+            Map<Long, List<ReservationAmenityRow>> amenities = reservationRepository
+                    .findAllAmenityRows()
+                    .stream()
+                    .collect(Collectors.groupingBy(ReservationAmenityRow::reservationId));
+            return rows.stream()
+                    .map(row -> ReservationListDTO.from(row, amenities.getOrDefault(row.id(), List.of())))
+                    .toList();
+        });
+    }
+
+    private static Amenity amenity(String name) {
+        Amenity amenity = new Amenity();
+        amenity.setName(name);
+        amenity.setPrice(new BigDecimal("15.00"));
+        return amenity;
+    }
+
+    private static ReservationAmenity reservationAmenity(Amenity amenity, int quantity) {
+        ReservationAmenity ra = new ReservationAmenity();
+        ra.setAmenity(amenity);
+        ra.setQuantity(quantity);
+        return ra;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReservationReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
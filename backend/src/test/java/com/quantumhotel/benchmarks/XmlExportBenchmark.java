@@ -0,0 +1,239 @@
+package com.quantumhotel.benchmarks;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.exporters.ReservationRows;
+import com.quantumhotel.exporters.XmlExporter;
+import com.quantumhotel.repository.ReservationExportRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The XML export with a Reservations section of {@code reservations} rows:
+ * the W3C DOM plus Transformer into a byte array that XmlExporter used to
+ * build (with the same section appended to the tree) against the StAX
+ * writer straight to the output stream. Rows are generated on the fly, as
+ * the database cursor hands them over, so only the exporters differ. Look
+ * at gc.alloc.rate.norm for bytes allocated per export.
+ * <p>
+ * main() also prints how much more heap is reachable when the last
+ * reservation is handed over than when the rows are just read: what each
+ * exporter holds on to at its peak.
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.quantumhotel.benchmarks.XmlExportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class XmlExportBenchmark {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+    private static final String[] CITIES = {"Zagreb", "Split", "Rijeka", "Osijek", "Zadar", "Pula", "Dubrovnik"};
+
+    @Param({"0", "100000"})
+    private int reservations;
+
+    private final XmlExporter xmlExporter = new XmlExporter();
+    private HotelStatisticsDTO statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statistics = statistics();
+    }
+
+    @Benchmark
+    public byte[] dom() throws Exception {
+        return domExport(statistics, rows(reservations, null));
+    }
+
+    @Benchmark
+    public OutputStream stax() throws Exception {
+        OutputStream out = OutputStream.nullOutputStream();
+        xmlExporter.export(statistics, rows(reservations, null), out);
+        return out;
+    }
+
+    static HotelStatisticsDTO statistics() {
+        HotelStatisticsDTO statistics = new HotelStatisticsDTO(JUNE, JUNE.plusDays(29));
+        statistics.setTotalReservations(100000);
+        statistics.setCompletedReservations(70000);
+        statistics.setCancelledReservations(10000);
+        statistics.setTotalRevenue(new BigDecimal("25000000.00"));
+        statistics.setAverageStayDuration(new BigDecimal("3.50"));
+        statistics.setReservationsByCity(Map.of("Zagreb", 40000, "Split", 30000, "Rijeka", 30000));
+        statistics.setReservationsByGender(Map.of("FEMALE", 50000, "MALE", 45000, "UNKNOWN", 5000));
+        statistics.setReservationsByAgeGroup(Map.of("25-34", 60000, "35-44", 40000));
+        List<HotelStatisticsDTO.AccommodationStats> accommodations = new ArrayList<>();
+        List<HotelStatisticsDTO.AmenityStats> amenities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accommodations.add(new HotelStatisticsDTO.AccommodationStats("Category " + i, 1000 * i,
+                    new BigDecimal(100000 * i)));
+            amenities.add(new HotelStatisticsDTO.AmenityStats("Amenity " + i, 500 * i, new BigDecimal(5000 * i)));
+        }
+        statistics.setTopAccommodations(accommodations);
+        statistics.setPopularAmenities(amenities);
+        return statistics;
+    }
+
+    // count rows; lastRow, if given, runs just before the last one is handed over
+    static ReservationRows rows(int count, Runnable lastRow) {
+        return action -> {
+            for (long id = 1; id <= count; id++) {
+                if (id == count && lastRow != null) {
+                    lastRow.run();
+                }
+                LocalDate from = JUNE.plusDays(id % 27);
+                action.accept(new ReservationExportRow(id, from, from.plusDays(1 + id % 3),
+                        ReservationStatus.CONFIRMED, Instant.parse("2030-05-01T10:00:00Z"), "guest" + id,
+                        "guest" + id + "@quantumhotel.com", CITIES[(int) (id % CITIES.length)], "Twin",
+                        new BigDecimal("100.00"), 100 + (int) (id % 50)));
+            }
+        };
+    }
+
+    // XmlExporter before it moved to StAX, with the Reservations section added to the tree
+    static byte[] domExport(HotelStatisticsDTO statistics, ReservationRows rows) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("HotelStatistics");
+        doc.appendChild(root);
+
+        Element period = child(doc, root, "Period");
+        add(doc, period, "StartDate", statistics.getStartDate().toString());
+        add(doc, period, "EndDate", statistics.getEndDate().toString());
+
+        Element summary = child(doc, root, "Summary");
+        add(doc, summary, "TotalReservations", String.valueOf(statistics.getTotalReservations()));
+        add(doc, summary, "CompletedReservations", String.valueOf(statistics.getCompletedReservations()));
+        add(doc, summary, "CancelledReservations", String.valueOf(statistics.getCancelledReservations()));
+        add(doc, summary, "TotalRevenue", statistics.getTotalRevenue().toString());
+        add(doc, summary, "AverageStayDuration", statistics.getAverageStayDuration().toString());
+
+        Element demographics = child(doc, root, "Demographics");
+        addMap(doc, child(doc, demographics, "ByCity"), statistics.getReservationsByCity(), "City");
+        addMap(doc, child(doc, demographics, "ByGender"), statistics.getReservationsByGender(), "Gender");
+        addMap(doc, child(doc, demographics, "ByAgeGroup"), statistics.getReservationsByAgeGroup(), "AgeGroup");
+
+        Element accommodations = child(doc, root, "TopAccommodations");
+        for (HotelStatisticsDTO.AccommodationStats acc : statistics.getTopAccommodations()) {
+            Element accommodation = child(doc, accommodations, "Accommodation");
+            add(doc, accommodation, "CategoryName", acc.getCategoryName());
+            add(doc, accommodation, "ReservationCount", String.valueOf(acc.getReservationCount()));
+            add(doc, accommodation, "TotalRevenue", acc.getTotalRevenue().toString());
+        }
+
+        Element amenities = child(doc, root, "PopularAmenities");
+        for (HotelStatisticsDTO.AmenityStats amenity : statistics.getPopularAmenities()) {
+            Element element = child(doc, amenities, "Amenity");
+            add(doc, element, "AmenityName", amenity.getAmenityName());
+            add(doc, element, "UsageCount", String.valueOf(amenity.getUsageCount()));
+            add(doc, element, "TotalRevenue", amenity.getTotalRevenue().toString());
+        }
+
+        Element reservations = child(doc, root, "Reservations");
+        rows.forEach(r -> {
+            Element reservation = child(doc, reservations, "Reservation");
+            reservation.setAttribute("id", String.valueOf(r.id()));
+            add(doc, reservation, "Arrival", r.dateFrom().toString());
+            add(doc, reservation, "Departure", r.dateTo().toString());
+            add(doc, reservation, "Nights", String.valueOf(ChronoUnit.DAYS.between(r.dateFrom(), r.dateTo())));
+            add(doc, reservation, "Status", r.status().name());
+            add(doc, reservation, "Guest", r.username());
+            add(doc, reservation, "Email", r.email());
+            add(doc, reservation, "City", r.city());
+            add(doc, reservation, "Category", r.categoryName());
+            add(doc, reservation, "Room", String.valueOf(r.unitNumber()));
+            add(doc, reservation, "PricePerNight", r.categoryPrice().toString());
+            add(doc, reservation, "BookedAt", r.createdAt().toString());
+        });
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.transform(new DOMSource(doc), new StreamResult(outputStream));
+        return outputStream.toByteArray();
+    }
+
+    private static Element child(Document doc, Element parent, String name) {
+        Element element = doc.createElement(name);
+        parent.appendChild(element);
+        return element;
+    }
+
+    private static void add(Document doc, Element parent, String name, String value) {
+        child(doc, parent, name).setTextContent(value != null ? value : "");
+    }
+
+    private static void addMap(Document doc, Element parent, Map<String, Integer> map, String name) {
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            Element element = child(doc, parent, name);
+            element.setAttribute("name", entry.getKey());
+            element.setAttribute("count", String.valueOf(entry.getValue()));
+        }
+    }
+
+    // heap reachable after a full GC when the last of count rows is handed over, in MB
+    static long reachableAtLastRow(int count, Consumer<ReservationRows> export) {
+        long[] used = new long[1];
+        export.accept(rows(count, () -> {
+            System.gc();
+            used[0] = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }));
+        return used[0] / (1024 * 1024);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(XmlExportBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        HotelStatisticsDTO statistics = statistics();
+        XmlExporter xmlExporter = new XmlExporter();
+        int count = 100000;
+        long baseline = reachableAtLastRow(count, rows -> rows.forEach(r -> { }));
+        System.out.println("Heap held at the last of " + count + " reservations:");
+        System.out.println("  dom  " + (reachableAtLastRow(count, rows -> {
+            try {
+                domExport(statistics, rows);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }) - baseline) + " MB");
+        System.out.println("  stax " + (reachableAtLastRow(count, rows -> {
+            try {
+                xmlExporter.export(statistics, rows, OutputStream.nullOutputStream());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }) - baseline) + " MB");
+    }
+}
@@ -0,0 +1,69 @@
+package com.quantumhotel.config;
+
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.repository.AccommodationCategoryRepository;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Entries only reach a READ_WRITE region once the loading transaction
+ * commits, so this test runs without the usual test transaction. IDENTITY
+ * inserts are not cached, the first read fills the regions.
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaConfigTest {
+
+    @Autowired
+    private AccommodationCategoryRepository categoryRepository;
+
+    @Autowired
+    private AccommodationUnitRepository unitRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Test
+    void unitAndItsCategoryComeFromSecondLevelCache() {
+        AccommodationCategory category = new AccommodationCategory();
+        category.setName("Cached Suite");
+        category.setCapacity(2);
+        category.setPrice(new BigDecimal("90.00"));
+        category = categoryRepository.save(category);
+
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setRoomNumber(701);
+        unit.setCategory(category);
+        unit = unitRepository.save(unit);
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        try {
+            unitRepository.findById(unit.getId()).orElseThrow();
+            assertEquals(1, statistics.getPrepareStatementCount());
+
+            assertEquals("Cached Suite", unitRepository.findById(unit.getId()).orElseThrow().getCategory().getName());
+            assertEquals("Cached Suite", categoryRepository.findById(category.getId()).orElseThrow().getName());
+
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(3, statistics.getSecondLevelCacheHitCount());
+        } finally {
+            unitRepository.delete(unit);
+            categoryRepository.delete(category);
+        }
+    }
+}
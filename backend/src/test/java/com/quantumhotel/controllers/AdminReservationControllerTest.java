@@ -2,6 +2,8 @@ package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.ReservationDetailsDTO;
 import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.controllers.dto.ReservationPageDTO;
+import com.quantumhotel.entity.ReservationStatus;
 import com.quantumhotel.services.ReservationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,8 +12,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +39,25 @@ class AdminReservationControllerTest {
     }
     @Test
     @WithMockUser(roles = {"ADMIN"})
+    void shouldReturnReservationPage() throws Exception {
+        when(reservationService.adminSearch(any(), eq("abc"), eq(20), eq(true)))
+                .thenReturn(new ReservationPageDTO(List.of(new ReservationListDTO()), "def", 41L));
+        mockMvc.perform(get("/api/admin/reservations/page")
+                        .param("status", "PENDING")
+                        .param("from", "2026-06-01")
+                        .param("cursor", "abc")
+                        .param("size", "20")
+                        .param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("def"))
+                .andExpect(jsonPath("$.total").value(41));
+        verify(reservationService).adminSearch(
+                argThat(f -> f.getStatus() == ReservationStatus.PENDING
+                        && LocalDate.of(2026, 6, 1).equals(f.getFrom())),
+                eq("abc"), eq(20), eq(true));
+    }
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
     void shouldReturnReservationById() throws Exception {
         ReservationDetailsDTO dto = new ReservationDetailsDTO();
         when(reservationService.adminGet(1L)).thenReturn(dto);
@@ -0,0 +1,78 @@
+package com.quantumhotel.controllers;
+
+import com.quantumhotel.controllers.dto.FaqResponse;
+import com.quantumhotel.entity.Article;
+import com.quantumhotel.entity.Faq;
+import com.quantumhotel.services.CatalogChangedEvent;
+import com.quantumhotel.services.ContentVersions;
+import com.quantumhotel.services.FaqService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = FaqController.class, properties = "app.http.cache-control.faq=public, max-age=60")
+@Import({ConditionalGet.class, ContentVersions.class})
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ContentVersions versions;
+
+    @MockBean
+    private FaqService faqService;
+
+    @Test
+    @WithMockUser
+    void matchingEtagAnswers304WithoutLoading() throws Exception {
+        when(faqService.findAll()).thenReturn(List.of(new FaqResponse()));
+
+        String etag = mockMvc.perform(get("/api/faq"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/faq").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"))
+                .andExpect(content().string(""));
+
+        verify(faqService, times(1)).findAll();
+    }
+
+    @Test
+    @WithMockUser
+    void changeInTheCollectionInvalidatesEtag() throws Exception {
+        when(faqService.findAll()).thenReturn(List.of());
+
+        String etag = mockMvc.perform(get("/api/faq"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // another collection changing leaves the FAQ validator alone
+        versions.onCatalogChanged(new CatalogChangedEvent(Article.class, 1L));
+        mockMvc.perform(get("/api/faq").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        versions.onCatalogChanged(new CatalogChangedEvent(Faq.class, 1L));
+        String newEtag = mockMvc.perform(get("/api/faq").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, newEtag);
+    }
+}
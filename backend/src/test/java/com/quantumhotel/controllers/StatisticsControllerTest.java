@@ -1,7 +1,10 @@
 package com.quantumhotel.controllers;
 
 import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.exporters.ParquetExporter;
 import com.quantumhotel.exporters.PdfExporter;
+import com.quantumhotel.exporters.ReservationLedgerExporter;
+import com.quantumhotel.exporters.StatisticsExporters;
 import com.quantumhotel.exporters.XlsxExporter;
 import com.quantumhotel.exporters.XmlExporter;
 import com.quantumhotel.services.StatisticsService;
@@ -9,29 +12,55 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNotNull;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StatisticsController.class)
+@Import(StatisticsExporters.class)
 class StatisticsControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @MockBean
     private StatisticsService statisticsService;
-    @MockBean
+    @SpyBean
     private XmlExporter xmlExporter;
-    @MockBean
+    @SpyBean
     private PdfExporter pdfExporter;
-    @MockBean
+    @SpyBean
     private XlsxExporter xlsxExporter;
+    @MockBean
+    private ReservationLedgerExporter ledgerExporter;
+    @MockBean
+    private ParquetExporter parquetExporter;
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldReturnStatistics() throws Exception {
@@ -50,53 +79,215 @@ class StatisticsControllerTest {
     @WithMockUser(roles = {"ADMIN", "STAFF"})
     void shouldExportXml() throws Exception {
         HotelStatisticsDTO dto = new HotelStatisticsDTO();
-        byte[] xmlData = "xml-content".getBytes();
 
         when(statisticsService.generateStatistics(any(), any()))
                 .thenReturn(dto);
 
-        when(xmlExporter.export(dto)).thenReturn(xmlData);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("xml-content".getBytes());
+            return null;
+        }).when(xmlExporter).export(eq(dto), isNull(), any());
 
-        mockMvc.perform(get("/api/statistics/export/xml")
+        MvcResult result = mockMvc.perform(get("/api/statistics/export/xml")
                         .param("startDate", "2024-01-01")
                         .param("endDate", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_XML));
+                .andExpect(content().contentType(MediaType.APPLICATION_XML))
+                .andExpect(content().bytes("xml-content".getBytes()));
     }
 
     @Test
     @WithMockUser(roles = {"ADMIN", "STAFF"})
     void shouldExportPdf() throws Exception {
         HotelStatisticsDTO dto = new HotelStatisticsDTO();
-        byte[] pdfData = "pdf-content".getBytes();
 
         when(statisticsService.generateStatistics(any(), any()))
                 .thenReturn(dto);
 
-        when(pdfExporter.export(dto)).thenReturn(pdfData);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("pdf-content".getBytes());
+            return null;
+        }).when(pdfExporter).export(eq(dto), isNull(), any());
 
-        mockMvc.perform(get("/api/statistics/export/pdf")
+        MvcResult result = mockMvc.perform(get("/api/statistics/export/pdf")
                         .param("startDate", "2024-01-01")
                         .param("endDate", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes("pdf-content".getBytes()));
     }
 
     @Test
     @WithMockUser(roles = {"ADMIN", "STAFF"})
     void shouldExportXlsx() throws Exception {
         HotelStatisticsDTO dto = new HotelStatisticsDTO();
-        byte[] xlsxData = "xlsx-content".getBytes();
 
         when(statisticsService.generateStatistics(any(), any()))
                 .thenReturn(dto);
 
-        when(xlsxExporter.export(dto)).thenReturn(xlsxData);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("xlsx-content".getBytes());
+            return null;
+        }).when(xlsxExporter).export(eq(dto), any(), any());
 
-        mockMvc.perform(get("/api/statistics/export/xlsx")
+        MvcResult result = mockMvc.perform(get("/api/statistics/export/xlsx")
                         .param("startDate", "2024-01-01")
                         .param("endDate", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(
+                        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .andExpect(content().bytes("xlsx-content".getBytes()));
+    }
+
+    @Test
+    @WithMockUser(roles = "STAFF")
+    void shouldNegotiateTheFormatOnAccept() throws Exception {
+        HotelStatisticsDTO dto = new HotelStatisticsDTO();
+        when(statisticsService.generateStatistics(any(), any())).thenReturn(dto);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("pdf-content".getBytes());
+            return null;
+        }).when(pdfExporter).export(eq(dto), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/statistics/export")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31")
+                        .header(HttpHeaders.ACCEPT, "application/xml;q=0.5, application/pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        containsString("hotel_statistics_2024-01-01_to_2024-01-31.pdf")));
+    }
+
+    @Test
+    @WithMockUser(roles = "STAFF")
+    void shouldBundleSeveralFormatsFromOneReport() throws Exception {
+        HotelStatisticsDTO dto = new HotelStatisticsDTO();
+        when(statisticsService.generateStatistics(any(), any())).thenReturn(dto);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("xml-content".getBytes());
+            return null;
+        }).when(xmlExporter).export(eq(dto), isNull(), any());
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("xlsx-content".getBytes());
+            return null;
+        }).when(xlsxExporter).export(eq(dto), isNotNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/statistics/export")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31")
+                        .param("format", "xlsx,xml"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] zipped = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        containsString("hotel_statistics_2024-01-01_to_2024-01-31.zip")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zipped))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), new String(in.readAllBytes()));
+            }
+        }
+        assertEquals(Map.of(
+                "hotel_statistics_2024-01-01_to_2024-01-31.xlsx", "xlsx-content",
+                "hotel_statistics_2024-01-01_to_2024-01-31.xml", "xml-content"), entries);
+        assertEquals(List.of("hotel_statistics_2024-01-01_to_2024-01-31.xlsx",
+                "hotel_statistics_2024-01-01_to_2024-01-31.xml"), List.copyOf(entries.keySet()));
+        verify(statisticsService, times(1)).generateStatistics(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "STAFF")
+    void shouldRejectUnknownOrUnnegotiableStatisticsFormat() throws Exception {
+        mockMvc.perform(get("/api/statistics/export")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31")
+                        .param("format", "docx"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/statistics/export")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31")
+                        .header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @WithMockUser(roles = "STAFF")
+    void shouldStreamGzippedReservationLedger() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("csv-content".getBytes());
+            return null;
+        }).when(ledgerExporter).writeCsv(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/statistics/export/reservations")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] gzipped = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM));
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        containsString("reservations_2024-01-01_to_2024-12-31.csv.gz")))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals("csv-content", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStreamReservationFactsAsParquet() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("PAR1".getBytes());
+            return null;
+        }).when(parquetExporter).export(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/statistics/export/facts")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.parquet"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        containsString("reservation_facts_2024-01-01_to_2024-12-31.parquet")))
+                .andExpect(content().bytes("PAR1".getBytes()));
+    }
+
+    @Test
+    @WithMockUser(roles = "STAFF")
+    void shouldRejectUnknownReservationFormat() throws Exception {
+        mockMvc.perform(get("/api/statistics/export/reservations")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31")
+                        .param("format", "parquet"))
+                .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
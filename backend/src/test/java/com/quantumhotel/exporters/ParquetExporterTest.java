@@ -0,0 +1,156 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.ReservationFactRow;
+import com.quantumhotel.users.Gender;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParquetExporterTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+    private static final Set<Encoding> DICTIONARY = Set.of(Encoding.PLAIN_DICTIONARY, Encoding.RLE_DICTIONARY);
+
+    @TempDir
+    private Path dir;
+
+    // one reservation with add-ons, one without and with an unknown guest
+    private final List<ReservationFactRow> rows = List.of(
+            new ReservationFactRow(1L, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED,
+                    Instant.parse("2030-05-01T10:00:00Z"), "Twin", new BigDecimal("99.12345"), 101, "Zagreb",
+                    Gender.FEMALE, LocalDate.of(1990, 6, 2), 3L, new BigDecimal("25.50000")),
+            new ReservationFactRow(2L, JUNE.plusDays(5), JUNE.plusDays(6), ReservationStatus.PENDING,
+                    null, "Twin", new BigDecimal("99.12345"), 102, null, null, null, null, null)
+    );
+
+    @Test
+    void factsKeepExactAmounts() throws Exception {
+        Path file = export(DataSize.ofMegabytes(64), rows);
+
+        try (ParquetFileReader reader = open(file)) {
+            List<Group> facts = read(reader);
+            assertEquals(2, facts.size());
+
+            Group first = facts.get(0);
+            assertEquals(1L, first.getLong("reservation_id", 0));
+            assertEquals((int) JUNE.toEpochDay(), first.getInteger("arrival", 0));
+            assertEquals(3, first.getInteger("nights", 0));
+            assertEquals("CONFIRMED", first.getString("status", 0));
+            assertEquals(Instant.parse("2030-05-01T10:00:00Z").toEpochMilli(), first.getLong("booked_at", 0));
+            assertEquals(new BigDecimal("99.12345"), decimal(first, "price_per_night"));
+            assertEquals(new BigDecimal("297.37035"), decimal(first, "room_revenue"));
+            assertEquals(3L, first.getLong("amenity_quantity", 0));
+            assertEquals(new BigDecimal("25.50000"), decimal(first, "amenity_revenue"));
+            assertEquals("Zagreb", first.getString("guest_city", 0));
+            assertEquals("FEMALE", first.getString("guest_gender", 0));
+            assertEquals(39, first.getInteger("guest_age", 0));
+            assertEquals("35-44", first.getString("guest_age_group", 0));
+
+            Group second = facts.get(1);
+            assertEquals(0, second.getFieldRepetitionCount("booked_at"));
+            assertEquals(0L, second.getLong("amenity_quantity", 0));
+            assertEquals(new BigDecimal("0.00000"), decimal(second, "amenity_revenue"));
+            assertEquals(0, second.getFieldRepetitionCount("guest_city"));
+            assertEquals(0, second.getFieldRepetitionCount("guest_age_group"));
+        }
+    }
+
+    // parquet falls back to plain encoding where a dictionary does not pay off, so enough rows to repeat
+    @Test
+    void repeatedTextIsDictionaryEncoded() throws Exception {
+        String[] cities = {"Zagreb", "Split", "Rijeka"};
+        List<ReservationFactRow> many = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            many.add(new ReservationFactRow(id, JUNE, JUNE.plusDays(1 + id % 3), ReservationStatus.CONFIRMED, null,
+                    "Twin", new BigDecimal("100.00"), 101, cities[(int) (id % 3)], Gender.MALE, null, null, null));
+        }
+
+        try (ParquetFileReader reader = open(export(DataSize.ofMegabytes(64), many))) {
+            BlockMetaData group = reader.getFooter().getBlocks().get(0);
+            assertTrue(encodings(group, "status").stream().anyMatch(DICTIONARY::contains));
+            assertTrue(encodings(group, "category").stream().anyMatch(DICTIONARY::contains));
+            assertTrue(encodings(group, "guest_city").stream().anyMatch(DICTIONARY::contains));
+            assertFalse(encodings(group, "reservation_id").stream().anyMatch(DICTIONARY::contains));
+        }
+    }
+
+    @Test
+    void aRowGroupIsWrittenOnceItReachesItsSize() throws Exception {
+        Path file = export(DataSize.ofBytes(1), rows);
+
+        try (ParquetFileReader reader = open(file)) {
+            assertEquals(List.of(1L, 1L),
+                    reader.getFooter().getBlocks().stream().map(BlockMetaData::getRowCount).toList());
+            assertEquals(2, read(reader).size());
+        }
+
+        try (ParquetFileReader reader = open(export(DataSize.ofMegabytes(64), List.of()))) {
+            assertEquals(0, reader.getRecordCount());
+        }
+    }
+
+    private Path export(DataSize rowGroupSize, List<ReservationFactRow> facts) throws Exception {
+        Path file = Files.createTempFile(dir, "facts", ".parquet");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            new ParquetExporter(rowGroupSize).export(facts::forEach, out);
+        }
+        return file;
+    }
+
+    private static ParquetFileReader open(Path file) throws Exception {
+        return ParquetFileReader.open(new LocalInputFile(file),
+                ParquetReadOptions.builder(new PlainParquetConfiguration()).build());
+    }
+
+    private static List<Group> read(ParquetFileReader reader) throws Exception {
+        List<Group> groups = new ArrayList<>();
+        PageReadStore rowGroup;
+        while ((rowGroup = reader.readNextRowGroup()) != null) {
+            RecordReader<Group> records = new ColumnIOFactory().getColumnIO(ParquetExporter.SCHEMA)
+                    .getRecordReader(rowGroup, new GroupRecordConverter(ParquetExporter.SCHEMA));
+            for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                groups.add(records.read());
+            }
+        }
+        return groups;
+    }
+
+    private static BigDecimal decimal(Group group, String field) {
+        return new BigDecimal(BigInteger.valueOf(group.getLong(field, 0)), ParquetExporter.MONEY_SCALE);
+    }
+
+    private static Set<Encoding> encodings(BlockMetaData group, String column) {
+        return group.getColumns().stream()
+                .filter(c -> c.getPath().toDotString().equals(column))
+                .map(ColumnChunkMetaData::getEncodings)
+                .findFirst().orElseThrow();
+    }
+}
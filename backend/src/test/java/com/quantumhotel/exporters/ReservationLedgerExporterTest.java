@@ -0,0 +1,77 @@
+package com.quantumhotel.exporters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.ReservationLineRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationLedgerExporterTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+    private static final Instant BOOKED = Instant.parse("2030-05-01T10:00:00Z");
+
+    private final ReservationLedgerExporter exporter = new ReservationLedgerExporter();
+
+    // reservation 1 with two add-ons, reservation 2 without any
+    private final List<ReservationLineRow> rows = List.of(
+            line(1L, "ana", "Zagreb", 11L, "Breakfast", 2, "10.00"),
+            line(1L, "ana", "Zagreb", 12L, "Parking", 1, "5.50"),
+            line(2L, "=HYPERLINK(\"x\")", "Vis, Komiža", null, null, null, null)
+    );
+
+    @Test
+    void csvHasARoomLineAndOneLinePerAddOn() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeCsv(rows::forEach, out);
+
+        assertEquals(List.of(
+                ReservationLedgerExporter.CSV_HEADER,
+                "1,2030-06-01,2030-06-04,CONFIRMED,2030-05-01T10:00:00Z,ana,ana@quantumhotel.com,Zagreb,"
+                        + "Twin,101,room,Twin,3,100.00,300.00",
+                "1,2030-06-01,2030-06-04,CONFIRMED,2030-05-01T10:00:00Z,ana,ana@quantumhotel.com,Zagreb,"
+                        + "Twin,101,amenity,Breakfast,2,10.00,20.00",
+                "1,2030-06-01,2030-06-04,CONFIRMED,2030-05-01T10:00:00Z,ana,ana@quantumhotel.com,Zagreb,"
+                        + "Twin,101,amenity,Parking,1,5.50,5.50",
+                "2,2030-06-01,2030-06-04,CONFIRMED,2030-05-01T10:00:00Z,\"'=HYPERLINK(\"\"x\"\")\","
+                        + "guest@quantumhotel.com,\"Vis, Komiža\",Twin,101,room,Twin,3,100.00,300.00"
+        ), out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerReservation() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.writeNdjson(rows::forEach, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals(3, first.get("nights").asInt());
+        assertEquals("Zagreb", first.get("guest").get("city").asText());
+        assertEquals(2, first.get("amenities").size());
+        assertEquals("Parking", first.get("amenities").get(1).get("name").asText());
+        assertTrue(lines.get(0).contains("\"price\":5.50"));
+        JsonNode second = mapper.readTree(lines.get(1));
+        assertEquals("Vis, Komiža", second.get("guest").get("city").asText());
+        assertEquals(0, second.get("amenities").size());
+    }
+
+    private static ReservationLineRow line(Long id, String username, String city, Long lineId, String amenity,
+                                           Integer quantity, String price) {
+        return new ReservationLineRow(id, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED, BOOKED, username,
+                id == 1 ? "ana@quantumhotel.com" : "guest@quantumhotel.com", city, "Twin",
+                new BigDecimal("100.00"), 101, lineId, amenity, quantity, price != null ? new BigDecimal(price) : null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsExportersTest {
+
+    private final HotelStatisticsDTO statistics = new HotelStatisticsDTO();
+
+    // neither format gets past the barrier unless the other one is being rendered too
+    private final CyclicBarrier barrier = new CyclicBarrier(2);
+    private final Format csv = new Format("csv", MediaType.parseMediaType("text/csv"), barrier);
+    private final Format json = new Format("json", MediaType.APPLICATION_JSON, barrier);
+    private StatisticsExporters exporters;
+
+    @BeforeEach
+    void setUp() {
+        exporters = new StatisticsExporters(List.of(csv, json), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporters.shutdown();
+    }
+
+    @Test
+    void acceptChoosesByQualityAndIgnoresWildcards() {
+        assertEquals(Optional.of("json"), exporters.negotiate(
+                MediaType.parseMediaTypes("text/csv;q=0.4, application/json")));
+        assertEquals(Optional.of("csv"), exporters.negotiate(
+                MediaType.parseMediaTypes("application/json;q=0, text/*;q=0.9, text/csv;q=0.8, */*")));
+        assertEquals(Optional.of(StatisticsExporters.BUNDLE), exporters.negotiate(
+                MediaType.parseMediaTypes("application/zip")));
+        assertEquals(Optional.empty(), exporters.negotiate(MediaType.parseMediaTypes("text/html, */*")));
+        assertEquals(Optional.of(csv), exporters.find("CSV"));
+    }
+
+    @Test
+    void aBundleRendersItsFormatsSideBySide() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporters.exportZip(statistics, List.of(json, csv), exporter -> null, "report", out);
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.add(entry.getName() + "=" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(List.of("report.json=json", "report.csv=csv"), entries);
+        assertNotEquals(csv.thread, json.thread);
+    }
+
+    @Test
+    void aFailingFormatFailsTheBundle() {
+        Format broken = new Format("txt", MediaType.TEXT_PLAIN, null);
+        StatisticsExporters withBroken = new StatisticsExporters(List.of(broken), 1);
+        try {
+            IOException e = assertThrows(IOException.class, () -> withBroken.exportZip(statistics,
+                    List.of(broken), exporter -> null, "report", OutputStream.nullOutputStream()));
+            assertEquals("disk full", e.getMessage());
+        } finally {
+            withBroken.shutdown();
+        }
+    }
+
+    // writes its name once the barrier trips, or fails without a barrier
+    private static final class Format implements StatisticsExporter {
+
+        private final String format;
+        private final MediaType mediaType;
+        private final CyclicBarrier barrier;
+        private volatile String thread;
+
+        Format(String format, MediaType mediaType, CyclicBarrier barrier) {
+            this.format = format;
+            this.mediaType = mediaType;
+            this.barrier = barrier;
+        }
+
+        @Override
+        public String format() {
+            return format;
+        }
+
+        @Override
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        @Override
+        public void export(HotelStatisticsDTO statistics, ReservationRows reservations, OutputStream out)
+                throws IOException {
+            if (barrier == null) {
+                throw new IOException("disk full");
+            }
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            thread = Thread.currentThread().getName();
+            out.write(format.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
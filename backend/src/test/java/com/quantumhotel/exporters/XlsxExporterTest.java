@@ -0,0 +1,56 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.ReservationExportRow;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XlsxExporterTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+
+    @Test
+    void reservationsSheetListsEveryRowPastTheWindow() throws Exception {
+        HotelStatisticsDTO statistics = new HotelStatisticsDTO(JUNE, JUNE.plusDays(29));
+        statistics.setTotalRevenue(new BigDecimal("320.00"));
+        statistics.setAverageStayDuration(new BigDecimal("2.33"));
+        int count = XlsxExporter.ROW_WINDOW * 3 + 7;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxExporter().export(statistics, action -> {
+            // the last one in a category without a price
+            for (long id = 1; id <= count; id++) {
+                action.accept(new ReservationExportRow(id, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED,
+                        Instant.parse("2030-05-01T10:00:00Z"), "guest" + id, "guest" + id + "@quantumhotel.com",
+                        "Zagreb", "Twin", id < count ? new BigDecimal("100.00") : null, 101));
+            }
+        }, out);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(5, workbook.getNumberOfSheets());
+            assertEquals(320.0, workbook.getSheet("Summary").getRow(8).getCell(1).getNumericCellValue());
+
+            Sheet reservations = workbook.getSheet("Reservations");
+            assertEquals(count, reservations.getLastRowNum());
+            assertEquals("Reservation ID", reservations.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(count, reservations.getRow(count).getCell(0).getNumericCellValue());
+            assertEquals(JUNE, reservations.getRow(count).getCell(1).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(3, reservations.getRow(count).getCell(3).getNumericCellValue());
+            assertEquals("guest" + count, reservations.getRow(count).getCell(5).getStringCellValue());
+            assertEquals(100.0, reservations.getRow(count - 1).getCell(10).getNumericCellValue());
+            assertEquals(CellType.BLANK, reservations.getRow(count).getCell(10).getCellType());
+        }
+    }
+}
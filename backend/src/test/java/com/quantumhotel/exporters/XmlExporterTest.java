@@ -0,0 +1,92 @@
+package com.quantumhotel.exporters;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.ReservationExportRow;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XmlExporterTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+
+    @Test
+    void writesTheStatisticsSchema() throws Exception {
+        HotelStatisticsDTO statistics = statistics();
+
+        Document doc = parse(statistics, null);
+
+        Element root = doc.getDocumentElement();
+        assertEquals("HotelStatistics", root.getTagName());
+        assertEquals("2030-06-01", text(root, "StartDate"));
+        assertEquals("3", text(root, "TotalReservations"));
+        assertEquals("320.00", text(root, "TotalRevenue"));
+        Element city = (Element) root.getElementsByTagName("City").item(0);
+        assertEquals("Zagreb", city.getAttribute("name"));
+        assertEquals("2", city.getAttribute("count"));
+        assertEquals("Twin", text(root, "CategoryName"));
+        assertEquals("Breakfast", text(root, "AmenityName"));
+        assertEquals(0, root.getElementsByTagName("Reservations").getLength());
+    }
+
+    @Test
+    void reservationsSectionListsEveryRow() throws Exception {
+        int count = 1000;
+
+        Document doc = parse(statistics(), action -> {
+            // the last one in a category without a price
+            for (long id = 1; id <= count; id++) {
+                action.accept(new ReservationExportRow(id, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED,
+                        Instant.parse("2030-05-01T10:00:00Z"), "guest" + id, "guest" + id + "@quantumhotel.com",
+                        "Vis & <Komiža>", "Twin", id < count ? new BigDecimal("100.00") : null, 101));
+            }
+        });
+
+        NodeList reservations = doc.getElementsByTagName("Reservation");
+        assertEquals(count, reservations.getLength());
+        Element last = (Element) reservations.item(count - 1);
+        assertEquals(String.valueOf(count), last.getAttribute("id"));
+        assertEquals("3", text(last, "Nights"));
+        assertEquals("Vis & <Komiža>", text(last, "City"));
+        assertEquals("2030-05-01T10:00:00Z", text(last, "BookedAt"));
+        assertEquals("", text(last, "PricePerNight"));
+        assertEquals("100.00", text((Element) reservations.item(count - 2), "PricePerNight"));
+    }
+
+    private static HotelStatisticsDTO statistics() {
+        HotelStatisticsDTO statistics = new HotelStatisticsDTO(JUNE, JUNE.plusDays(29));
+        statistics.setTotalReservations(3);
+        statistics.setTotalRevenue(new BigDecimal("320.00"));
+        statistics.setAverageStayDuration(new BigDecimal("2.33"));
+        statistics.setReservationsByCity(Map.of("Zagreb", 2));
+        statistics.setTopAccommodations(List.of(
+                new HotelStatisticsDTO.AccommodationStats("Twin", 1, new BigDecimal("300.00"))));
+        statistics.setPopularAmenities(List.of(
+                new HotelStatisticsDTO.AmenityStats("Breakfast", 2, new BigDecimal("20.00"))));
+        return statistics;
+    }
+
+    private static Document parse(HotelStatisticsDTO statistics, ReservationRows reservations) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XmlExporter().export(statistics, reservations, out);
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static String text(Element parent, String name) {
+        return parent.getElementsByTagName(name).item(0).getTextContent();
+    }
+}
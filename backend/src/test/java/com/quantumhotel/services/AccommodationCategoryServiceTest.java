@@ -1,6 +1,8 @@
 package com.quantumhotel.services;
 
 import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.controllers.dto.AvailabilityCalendarDTO;
+import com.quantumhotel.controllers.dto.CategoryCalendarDTO;
 import com.quantumhotel.entity.AccommodationCategory;
 import com.quantumhotel.repository.AccommodationCategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -11,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -57,4 +60,40 @@ class AccommodationCategoryServiceTest {
 
         assertThrows(EntityNotFoundException.class, () -> categoryService.getById(99L));
     }
+
+    // 3. Kalendar dostupnosti: boravci koji presijecaju rub raspona
+
+    @Test
+    void availabilityCalendar_countsFreeUnitsPerNight() {
+        LocalDate from = LocalDate.of(2030, 6, 1);
+        LocalDate to = from.plusDays(5);
+
+        when(categoryRepository.countUnitsPerCategory(2)).thenReturn(List.of(
+                new Object[]{1L, "Double Room", 3L},
+                new Object[]{2L, "Suite", 1L}
+        ));
+        when(categoryRepository.findConfirmedStaysBetween(from, to)).thenReturn(List.of(
+                new Object[]{1L, from.minusDays(2), from.plusDays(2)},
+                new Object[]{1L, from.plusDays(1), from.plusDays(3)},
+                new Object[]{1L, from.plusDays(4), from.plusDays(9)},
+                new Object[]{2L, from.plusDays(3), from.plusDays(4)},
+                new Object[]{3L, from, to}
+        ));
+
+        AvailabilityCalendarDTO calendar = categoryService.getAvailabilityCalendar(from, to, 2);
+
+        List<CategoryCalendarDTO> categories = calendar.getCategories();
+        assertEquals(2, categories.size());
+        assertEquals(List.of(2, 1, 2, 3, 2), categories.get(0).getFreeUnits());
+        assertEquals(List.of(1, 1, 1, 0, 1), categories.get(1).getFreeUnits());
+    }
+
+    @Test
+    void availabilityCalendar_rejectsMoreThanAYear() {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryService.getAvailabilityCalendar(from, from.plusDays(366), 1));
+        verifyNoInteractions(categoryRepository);
+    }
 }
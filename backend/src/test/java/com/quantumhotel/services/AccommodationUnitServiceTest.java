@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -24,6 +25,10 @@ class AccommodationUnitServiceTest {
     private AccommodationUnitRepository unitRepository;
     @Mock
     private AccommodationCategoryRepository categoryRepository;
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+    @Mock
+    private ApplicationEventPublisher events;
 
     @InjectMocks
     private AccommodationUnitService unitService;
@@ -0,0 +1,176 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.ReservationFilter;
+import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.controllers.dto.ReservationPageDTO;
+import com.quantumhotel.entity.*;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ReservationService.class)
+class AdminReservationSearchTest {
+
+    private static final Instant T0 = Instant.parse("2026-05-01T10:00:00Z");
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+
+    @MockBean
+    private NightLedger nightLedger;
+
+    private AccommodationCategory suite;
+    private final List<Reservation> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User ana = user("ana", "Ana", "Horvat");
+        User marko = user("marko", "Marko", "Babic");
+        suite = category("Suite");
+        AccommodationCategory standard = category("Standard");
+        AccommodationUnit suiteUnit = unit(suite, 501);
+        AccommodationUnit standardUnit = unit(standard, 101);
+
+        // 12 reservations, pairs share a createdAt so the id tie-break matters
+        for (int i = 0; i < 12; i++) {
+            Reservation r = new Reservation();
+            r.setUser(i % 3 == 0 ? marko : ana);
+            r.setCategory(i % 2 == 0 ? suite : standard);
+            r.setUnit(i % 2 == 0 ? suiteUnit : standardUnit);
+            r.setStatus(i % 4 == 0 ? ReservationStatus.CONFIRMED : ReservationStatus.PENDING);
+            r.setDateFrom(LocalDate.of(2026, 6, 1).plusDays(i * 2L));
+            r.setDateTo(LocalDate.of(2026, 6, 3).plusDays(i * 2L));
+            r.setCreatedAt(T0.plusSeconds(i / 2));
+            created.add(em.persist(r));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void shouldWalkAllPagesInKeysetOrder() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ReservationPageDTO page = reservationService.adminSearch(new ReservationFilter(), cursor, 5, false);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+            assertNull(page.getTotal());
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expectedOrder(), seen);
+    }
+
+    @Test
+    void shouldApplyFiltersAndCount() {
+        ReservationFilter filter = new ReservationFilter(ReservationStatus.PENDING, suite.getId(), null, null, "ANA");
+
+        ReservationPageDTO page = reservationService.adminSearch(filter, null, 50, true);
+
+        assertFalse(page.getItems().isEmpty());
+        for (ReservationListDTO item : page.getItems()) {
+            assertEquals("PENDING", item.getStatus());
+            assertEquals(suite.getId(), item.getCategoryId());
+        }
+        assertEquals(page.getItems().size(), page.getTotal());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldSelectOverlappingDateRange() {
+        // 2026-06-05..06-09 overlaps the stays that start on 06-05 and 06-07
+        ReservationFilter filter = new ReservationFilter(null, null,
+                LocalDate.of(2026, 6, 5), LocalDate.of(2026, 6, 9), null);
+
+        ReservationPageDTO page = reservationService.adminSearch(filter, null, 50, true);
+
+        assertEquals(2, page.getTotal());
+    }
+
+    @Test
+    void shouldUseThreeQueriesPerPage() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ReservationPageDTO page = reservationService.adminSearch(new ReservationFilter(), null, 10, false);
+
+        assertEquals(10, page.getItems().size());
+        assertNotNull(page.getItems().get(9).getAmenities());
+        // keyset page, list projection, amenities
+        assertEquals(3, statistics.getPrepareStatementCount());
+        // the keyset page selects (id, createdAt) only
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void shouldRejectGarbageCursor() {
+        assertThrows(ResponseStatusException.class,
+                () -> reservationService.adminSearch(new ReservationFilter(), "not-a-cursor", 10, false));
+    }
+
+    private List<Long> expectedOrder() {
+        return created.stream()
+                .sorted(Comparator.comparing(Reservation::getCreatedAt).thenComparing(Reservation::getId).reversed())
+                .map(Reservation::getId)
+                .toList();
+    }
+
+    private User user(String username, String firstName, String lastName) {
+        User user = new User();
+        user.setUsername(username);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(username + "@quantumhotel.com");
+        user.setRole(Role.USER);
+        return em.persist(user);
+    }
+
+    private AccommodationCategory category(String name) {
+        AccommodationCategory category = new AccommodationCategory();
+        category.setName(name);
+        category.setPrice(new BigDecimal("100.00"));
+        return em.persist(category);
+    }
+
+    private AccommodationUnit unit(AccommodationCategory category, int roomNumber) {
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setRoomNumber(roomNumber);
+        unit.setCategory(category);
+        return em.persist(unit);
+    }
+}
@@ -0,0 +1,104 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.ReservationStatus;
+import com.quantumhotel.repository.AccommodationUnitRepository;
+import com.quantumhotel.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 7, 1);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private AccommodationUnitRepository unitRepository;
+
+    @InjectMocks
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // category 1 -> units 10, 11; category 2 -> unit 20
+        when(unitRepository.findUnitCategoryIds()).thenReturn(List.of(
+                new Object[]{11L, 1L},
+                new Object[]{10L, 1L},
+                new Object[]{20L, 2L}
+        ));
+        // unit 10 is booked for 10 nights, unit 11 for one night in the middle of that
+        when(reservationRepository.findConfirmedStays()).thenReturn(List.of(
+                new Object[]{100L, 10L, DAY, DAY.plusDays(10)},
+                new Object[]{101L, 11L, DAY.plusDays(4), DAY.plusDays(5)}
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    void shouldPickLowestFreeUnitOfCategory() {
+        assertEquals(Optional.of(11L), index.findFreeUnit(1L, DAY.plusDays(1), DAY.plusDays(3)));
+        assertEquals(Optional.of(10L), index.findFreeUnit(1L, DAY.plusDays(10), DAY.plusDays(12)));
+        assertEquals(Optional.empty(), index.findFreeUnit(1L, DAY.plusDays(3), DAY.plusDays(6)));
+        assertEquals(Optional.empty(), index.findFreeUnit(99L, DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void shouldTreatCheckoutDayAsFree() {
+        assertTrue(index.isFree(11L, DAY.plusDays(5), DAY.plusDays(6)));
+        assertTrue(index.isFree(11L, DAY.plusDays(2), DAY.plusDays(4)));
+        assertFalse(index.isFree(10L, DAY.plusDays(9), DAY.plusDays(11)));
+    }
+
+    @Test
+    void shouldFollowStatusChanges() {
+        Reservation r = reservation(102L, 20L, DAY, DAY.plusDays(2), ReservationStatus.CONFIRMED);
+        index.sync(r);
+        assertFalse(index.isFree(20L, DAY.plusDays(1), DAY.plusDays(2)));
+
+        r.setStatus(ReservationStatus.REJECTED);
+        index.sync(r);
+        assertTrue(index.isFree(20L, DAY.plusDays(1), DAY.plusDays(2)));
+    }
+
+    @Test
+    void shouldMoveUnitBetweenCategories() {
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setId(11L);
+        unit.setCategory(new AccommodationCategory());
+        unit.getCategory().setId(2L);
+
+        index.registerUnit(unit);
+
+        assertEquals(Optional.empty(), index.findFreeUnit(1L, DAY.plusDays(1), DAY.plusDays(3)));
+        assertEquals(Optional.of(11L), index.findFreeUnit(2L, DAY.plusDays(1), DAY.plusDays(3)));
+    }
+
+    private Reservation reservation(Long id, Long unitId, LocalDate from, LocalDate to, ReservationStatus status) {
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setId(unitId);
+
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setUnit(unit);
+        r.setDateFrom(from);
+        r.setDateTo(to);
+        r.setStatus(status);
+        return r;
+    }
+}
@@ -0,0 +1,161 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.entity.AccommodationUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilitySearchCacheTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 7, 10);
+    private static final LocalDate TO = FROM.plusDays(3);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilitySearchCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AvailabilitySearchCache(meterRegistry, 100, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        cache.get(FROM, TO, 2, loader());
+        cache.get(FROM, TO, 2, loader());
+        cache.get(FROM, TO, 3, loader());
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "availability.search")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void onlyOverlappingSearchesAreInvalidated() {
+        cache.get(FROM, TO, 2, loader());
+        cache.get(TO, TO.plusDays(2), 2, loader());
+
+        // ends on the night before FROM and checks in on the last night of the second range
+        cache.onReservationChanged(ReservationChangedEvent.of(1L, FROM.minusDays(4), FROM));
+        cache.get(FROM, TO, 2, loader());
+        cache.get(TO, TO.plusDays(2), 2, loader());
+        assertEquals(2, loads.get());
+
+        cache.onReservationChanged(ReservationChangedEvent.of(2L, TO.plusDays(1), TO.plusDays(5)));
+        cache.get(FROM, TO, 2, loader());
+        cache.get(TO, TO.plusDays(2), 2, loader());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void previousDatesOfAPatchAlsoInvalidate() {
+        cache.get(FROM, TO, 2, loader());
+
+        cache.onReservationChanged(new ReservationChangedEvent(
+                1L, TO.plusDays(10), TO.plusDays(12), FROM.plusDays(1), FROM.plusDays(2)));
+        cache.get(FROM, TO, 2, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void catalogChangeInvalidatesEverything() {
+        cache.get(FROM, TO, 2, loader());
+        cache.get(FROM.plusDays(100), TO.plusDays(100), 4, loader());
+
+        cache.onCatalogChanged(new CatalogChangedEvent(AccommodationUnit.class, 1L));
+        cache.get(FROM, TO, 2, loader());
+        cache.get(FROM.plusDays(100), TO.plusDays(100), 4, loader());
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<AccommodationCategoryDTO>> slow = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return List.of(new AccommodationCategoryDTO());
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?> first = pool.submit(() -> cache.get(FROM, TO, 2, slow));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<List<AccommodationCategoryDTO>>> waiting = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                waiting.add(pool.submit(() -> cache.get(FROM, TO, 2, slow)));
+            }
+            release.countDown();
+
+            first.get(5, TimeUnit.SECONDS);
+            for (Future<List<AccommodationCategoryDTO>> f : waiting) {
+                assertEquals(1, f.get(5, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void loadRacingWithAChangeIsNotKept() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<AccommodationCategoryDTO>> slow = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return List.of();
+        };
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> inFlight = pool.submit(() -> cache.get(FROM, TO, 2, slow));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            cache.onReservationChanged(ReservationChangedEvent.of(1L, FROM, TO));
+            release.countDown();
+            inFlight.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        cache.get(FROM, TO, 2, loader());
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<List<AccommodationCategoryDTO>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of();
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
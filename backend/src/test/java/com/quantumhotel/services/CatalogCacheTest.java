@@ -0,0 +1,94 @@
+package com.quantumhotel.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantumhotel.controllers.dto.AccommodationCategoryDTO;
+import com.quantumhotel.controllers.dto.AmenityDTO;
+import com.quantumhotel.controllers.dto.LocationResponseDto;
+import com.quantumhotel.entity.AccommodationCategory;
+import com.quantumhotel.entity.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogCacheTest {
+
+    @Mock
+    private AccommodationCategoryService categoryService;
+    @Mock
+    private AmenityService amenityService;
+    @Mock
+    private AccommodationUnitService unitService;
+    @Mock
+    private LocationService locationService;
+
+    private ContentVersions versions;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        versions = new ContentVersions();
+        catalogCache = new CatalogCache(categoryService, amenityService, unitService, locationService, versions, objectMapper);
+    }
+
+    @Test
+    void servesSerialisedSnapshotUntilChanged() {
+        AccommodationCategoryDTO suite = new AccommodationCategoryDTO();
+        suite.setId(1L);
+        suite.setName("Suite");
+        suite.setPrice(new BigDecimal("250.00"));
+        when(categoryService.getAll()).thenReturn(List.of(suite));
+
+        CatalogCache.Snapshot<List<AccommodationCategoryDTO>> first = catalogCache.categories();
+        CatalogCache.Snapshot<List<AccommodationCategoryDTO>> second = catalogCache.categories();
+
+        assertSame(first, second);
+        String json = new String(first.json(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"name\":\"Suite\""), json);
+        verify(categoryService, times(1)).getAll();
+    }
+
+    @Test
+    void categoryChangeReloadsCategoriesAndUnitsOnly() {
+        when(categoryService.getAll()).thenReturn(List.of());
+        when(unitService.getAll()).thenReturn(List.of());
+        when(amenityService.getAll()).thenReturn(List.of(new AmenityDTO()));
+
+        catalogCache.categories();
+        catalogCache.units();
+        catalogCache.amenities();
+
+        versions.onCatalogChanged(new CatalogChangedEvent(AccommodationCategory.class, 1L));
+        catalogCache.categories();
+        catalogCache.units();
+        catalogCache.amenities();
+
+        verify(categoryService, times(2)).getAll();
+        verify(unitService, times(2)).getAll();
+        verify(amenityService, times(1)).getAll();
+    }
+
+    @Test
+    void reloadOverlappingAChangeIsLoadedAgain() {
+        when(locationService.get()).thenAnswer(inv -> {
+            // the PATCH commits while this read is in progress
+            versions.onCatalogChanged(new CatalogChangedEvent(Location.class, 1L));
+            return new LocationResponseDto(45.0, 15.0);
+        }).thenReturn(new LocationResponseDto(46.0, 16.0));
+
+        assertEquals(45.0, catalogCache.location().value().getLatitude());
+        assertEquals(46.0, catalogCache.location().value().getLatitude());
+        assertEquals(46.0, catalogCache.location().value().getLatitude());
+        verify(locationService, times(2)).get();
+    }
+}
@@ -0,0 +1,132 @@
+package com.quantumhotel.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.quantumhotel.entity.EmailOutbox;
+import com.quantumhotel.entity.EmailOutboxStatus;
+import com.quantumhotel.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldSendDueBatchAndMarkItSent() throws Exception {
+        EmailOutbox first = email(1L, "guest1@quantumhotel.com", 0);
+        EmailOutbox second = email(2L, "guest2@quantumhotel.com", 0);
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(first, second));
+        when(outboxRepository.countByStatus(EmailOutboxStatus.PENDING)).thenReturn(0L);
+
+        dispatcher(ServerSetupTest.SMTP.getPort()).dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Reservation Confirmed", received[0].getSubject());
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any(Instant.class));
+        assertEquals(2.0, meterRegistry.counter("email.outbox.sent").count());
+        assertEquals(1, meterRegistry.timer("email.outbox.send").count());
+    }
+
+    @Test
+    void shouldBackOffAndDeadLetterWhenSmtpIsDown() {
+        EmailOutbox fresh = email(1L, "guest1@quantumhotel.com", 0);
+        EmailOutbox lastTry = email(2L, "guest2@quantumhotel.com", 2);
+        when(outboxRepository.lockDue(any(), any())).thenReturn(List.of(fresh, lastTry));
+        when(outboxRepository.countByStatus(EmailOutboxStatus.PENDING)).thenReturn(1L);
+
+        Instant before = Instant.now();
+        dispatcher(ServerSetupTest.SMTP.getPort() + 1).dispatch();
+
+        assertEquals(EmailOutboxStatus.PENDING, fresh.getStatus());
+        assertEquals(1, fresh.getAttempts());
+        assertTrue(fresh.getNextAttemptAt().isAfter(before.plusSeconds(29)));
+        assertNotNull(fresh.getLastError());
+
+        assertEquals(EmailOutboxStatus.DEAD, lastTry.getStatus());
+        assertEquals(3, lastTry.getAttempts());
+
+        verify(outboxRepository, never()).markSent(anyList(), any());
+        assertEquals(1.0, meterRegistry.counter("email.outbox.dead").count());
+        assertEquals(1.0, meterRegistry.get("email.outbox.depth").tag("status", "pending").gauge().value());
+    }
+
+    @Test
+    void shouldDoubleBackoffUpToLimit() {
+        EmailOutboxDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort());
+
+        assertEquals(Duration.ofSeconds(30), dispatcher.backoffFor(1));
+        assertEquals(Duration.ofSeconds(120), dispatcher.backoffFor(3));
+        assertEquals(Duration.ofHours(1), dispatcher.backoffFor(12));
+    }
+
+    @Test
+    void shouldPurgeFinishedMessagesOlderThanRetention() {
+        when(outboxRepository.deleteFinishedBefore(any())).thenReturn(2);
+
+        Instant before = Instant.now();
+        dispatcher(ServerSetupTest.SMTP.getPort()).purge();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxRepository).deleteFinishedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofDays(3))));
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofDays(3))));
+    }
+
+    private EmailOutboxDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@quantumhotel.com");
+
+        return new EmailOutboxDispatcher(
+                outboxRepository, mailSender, transactionManager, meterRegistry,
+                50, 3, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofDays(3)
+        );
+    }
+
+    private EmailOutbox email(Long id, String to, int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setRecipient(to);
+        email.setSubject("Reservation Confirmed");
+        email.setBody("<p>Your reservation has been confirmed!</p>");
+        email.setHtml(true);
+        email.setAttempts(attempts);
+        return email;
+    }
+}
@@ -0,0 +1,46 @@
+package com.quantumhotel.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NightBitsetTest {
+
+    private static final LocalDate BASE = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void shouldSetAndClearAcrossWordBoundaries() {
+        NightBitset bits = new NightBitset(BASE, 200);
+
+        bits.set(BASE.plusDays(60), BASE.plusDays(130));
+
+        assertTrue(bits.intersects(BASE.plusDays(63), BASE.plusDays(65)));
+        assertTrue(bits.intersects(BASE.plusDays(129), BASE.plusDays(131)));
+        assertFalse(bits.intersects(BASE.plusDays(130), BASE.plusDays(190)));
+        assertFalse(bits.intersects(BASE, BASE.plusDays(60)));
+
+        bits.clear(BASE.plusDays(64), BASE.plusDays(128));
+
+        assertTrue(bits.intersects(BASE.plusDays(63), BASE.plusDays(64)));
+        assertFalse(bits.intersects(BASE.plusDays(64), BASE.plusDays(128)));
+        assertTrue(bits.intersects(BASE.plusDays(127), BASE.plusDays(129)));
+    }
+
+    @Test
+    void shouldClampRangesOutsideHorizon() {
+        NightBitset bits = new NightBitset(BASE, 100);
+
+        bits.set(BASE.minusDays(10), BASE.plusDays(2));
+        bits.set(BASE.plusDays(98), BASE.plusDays(150));
+
+        assertTrue(bits.intersects(BASE, BASE.plusDays(1)));
+        assertFalse(bits.intersects(BASE.plusDays(2), BASE.plusDays(98)));
+        assertTrue(bits.intersects(BASE.plusDays(99), BASE.plusDays(100)));
+
+        assertTrue(bits.covers(BASE, BASE.plusDays(100)));
+        assertFalse(bits.covers(BASE.minusDays(1), BASE.plusDays(3)));
+        assertFalse(bits.covers(BASE.plusDays(99), BASE.plusDays(101)));
+    }
+}
@@ -0,0 +1,141 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.entity.AccommodationUnit;
+import com.quantumhotel.entity.Reservation;
+import com.quantumhotel.entity.UnitNight;
+import com.quantumhotel.entity.UnitNightConflict;
+import com.quantumhotel.repository.ReservationRepository;
+import com.quantumhotel.repository.UnitNightConflictRepository;
+import com.quantumhotel.repository.UnitNightRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NightLedgerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 7, 1);
+
+    @Mock
+    private UnitNightRepository unitNightRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private UnitNightConflictRepository unitNightConflictRepository;
+
+    @InjectMocks
+    private NightLedger nightLedger;
+
+    @Test
+    void shouldWriteOneRowPerNight() {
+        List<UnitNight> nights = NightLedger.nightsOf(5L, 10L, DAY, DAY.plusDays(3));
+
+        assertEquals(3, nights.size());
+        assertEquals(DAY, nights.get(0).getNight());
+        assertEquals(DAY.plusDays(2), nights.get(2).getNight());
+        assertTrue(nights.stream().allMatch(n -> n.getUnitId() == 10L && n.getReservationId() == 5L));
+    }
+
+    @Test
+    void shouldReportTakenNightAsAlreadyBooked() {
+        when(unitNightRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> nightLedger.book(reservation(5L, 10L, DAY, DAY.plusDays(2))));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals("Unit is already booked in selected period", ex.getReason());
+    }
+
+    @Test
+    void shouldSkipOverlappingNightsWhenBackfilling() {
+        when(reservationRepository.findConfirmedStaysWithoutNights()).thenReturn(List.of(
+                new Object[]{1L, 10L, DAY, DAY.plusDays(3)},
+                new Object[]{2L, 10L, DAY.plusDays(2), DAY.plusDays(4)}
+        ));
+
+        nightLedger.backfill();
+
+        verify(unitNightRepository).saveAll(argThat((List<UnitNight> nights) ->
+                nights.size() == 4
+                        && nights.get(3).getReservationId() == 2L
+                        && nights.get(3).getNight().equals(DAY.plusDays(3))));
+    }
+
+    // two startups over a pair whose nights all collide, the repositories answer as the database would
+    @Test
+    void shouldLeaveFullyOverlappedStayAloneOnNextBackfill() {
+        Map<UnitNight.Key, UnitNight> ledger = new HashMap<>();
+        Set<Long> conflicts = new HashSet<>();
+        List<Object[]> stays = List.of(
+                new Object[]{1L, 10L, DAY, DAY.plusDays(2)},
+                new Object[]{2L, 10L, DAY, DAY.plusDays(2)}
+        );
+        when(reservationRepository.findConfirmedStaysWithoutNights()).thenAnswer(invocation -> stays.stream()
+                .filter(stay -> ledger.values().stream().noneMatch(n -> n.getReservationId().equals(stay[0])))
+                .filter(stay -> !conflicts.contains((Long) stay[0]))
+                .toList());
+        when(unitNightRepository.findNightsOfUnits(anyCollection(), any(), any())).thenAnswer(invocation ->
+                ledger.values().stream().map(n -> new Object[]{n.getUnitId(), n.getNight()}).toList());
+        when(unitNightRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            for (UnitNight night : invocation.<List<UnitNight>>getArgument(0)) {
+                if (ledger.putIfAbsent(night.getId(), night) != null) {
+                    throw new DataIntegrityViolationException("duplicate key");
+                }
+            }
+            return invocation.getArgument(0);
+        });
+        when(unitNightConflictRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            invocation.<List<UnitNightConflict>>getArgument(0).forEach(c -> conflicts.add(c.getReservationId()));
+            return invocation.getArgument(0);
+        });
+
+        nightLedger.backfill();
+        nightLedger.backfill();
+
+        assertEquals(Set.of(2L), conflicts);
+        assertEquals(2, ledger.size());
+        assertTrue(ledger.values().stream().allMatch(n -> n.getReservationId() == 1L));
+        verify(reservationRepository, times(2)).findConfirmedStaysWithoutNights();
+        verify(unitNightRepository, times(1)).saveAll(anyList());
+
+        // a stay skipped before conflicts were recorded comes back once, its nights are already taken
+        conflicts.clear();
+        assertDoesNotThrow(() -> nightLedger.backfill());
+        assertEquals(Set.of(2L), conflicts);
+        assertEquals(2, ledger.size());
+    }
+
+    private Reservation reservation(Long id, Long unitId, LocalDate from, LocalDate to) {
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setId(unitId);
+
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setUnit(unit);
+        r.setDateFrom(from);
+        r.setDateTo(to);
+        return r;
+    }
+}
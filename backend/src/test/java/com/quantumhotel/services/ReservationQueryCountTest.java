@@ -0,0 +1,180 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.config.JpaConfig;
+import com.quantumhotel.controllers.dto.ReservationCreateDTO;
+import com.quantumhotel.controllers.dto.ReservationDetailsDTO;
+import com.quantumhotel.controllers.dto.ReservationListDTO;
+import com.quantumhotel.entity.*;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards against N+1: reservation reads must take the same number of
+ * queries however many rows they return.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ReservationService.class, JpaConfig.class})
+class ReservationQueryCountTest {
+
+    private static final int RESERVATIONS = 30;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+
+    @MockBean
+    private NightLedger nightLedger;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User guest;
+    private Long lastReservationId;
+
+    @BeforeEach
+    void setUp() {
+        guest = user("guest", Role.USER);
+        User admin = user("staff", Role.ADMIN);
+        Amenity breakfast = amenity("Breakfast");
+        Amenity parking = amenity("Parking");
+
+        for (int i = 0; i < RESERVATIONS; i++) {
+            AccommodationCategory category = new AccommodationCategory();
+            category.setName("Category " + i);
+            category.setPrice(new BigDecimal("100.00"));
+            em.persist(category);
+
+            AccommodationUnit unit = new AccommodationUnit();
+            unit.setRoomNumber(100 + i);
+            unit.setCategory(category);
+            em.persist(unit);
+
+            Reservation r = new Reservation();
+            r.setUser(i % 2 == 0 ? guest : user("guest" + i, Role.USER));
+            r.setProcessedBy(admin);
+            r.setCategory(category);
+            r.setUnit(unit);
+            r.setDateFrom(LocalDate.of(2026, 8, 1).plusDays(i));
+            r.setDateTo(LocalDate.of(2026, 8, 3).plusDays(i));
+            r.addAmenity(reservationAmenity(breakfast, 2));
+            r.addAmenity(reservationAmenity(parking, 1));
+            em.persist(r);
+            lastReservationId = r.getId();
+        }
+        em.flush();
+        em.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void adminListingShouldUseTwoQueries() {
+        List<ReservationListDTO> result = reservationService.adminGetAll();
+
+        assertEquals(RESERVATIONS, result.size());
+        assertEquals(2, result.get(0).getAmenities().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userListingShouldUseThreeQueries() {
+        // user lookup, reservations, amenities
+        List<ReservationListDTO> result = reservationService.findMine("guest");
+
+        assertEquals(RESERVATIONS / 2, result.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void detailsShouldUseTwoQueries() {
+        ReservationDetailsDTO dto = reservationService.adminGet(lastReservationId);
+
+        assertEquals("staff", dto.getProcessedBy().username());
+        assertEquals(2, dto.getSelectedAmenities().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createWithManyAmenitiesShouldBatchTheWrites() {
+        List<ReservationCreateDTO.AmenityRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ReservationCreateDTO.AmenityRequest request = new ReservationCreateDTO.AmenityRequest();
+            request.setAmenityId(amenity("Add-on " + i).getId());
+            request.setQuantity(1);
+            requests.add(request);
+        }
+        AccommodationUnit unit = em.find(AccommodationUnit.class, em.find(Reservation.class, lastReservationId).getUnit().getId());
+        ReservationCreateDTO dto = new ReservationCreateDTO();
+        dto.setCategoryId(unit.getCategory().getId());
+        dto.setDateFrom(LocalDate.of(2027, 1, 10));
+        dto.setDateTo(LocalDate.of(2027, 1, 12));
+        dto.setAmenities(requests);
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        reservationService.create(dto, "guest");
+        em.flush();
+
+        // user, unit lock, category, amenities, reservation insert, one amenity batch
+        // (the ids come from the block setUp already took from the sequence)
+        assertEquals(21, statistics.getEntityInsertCount());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void readsShouldNotManageReservationEntities() {
+        reservationService.adminGetAll();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private User user(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@quantumhotel.com");
+        user.setRole(role);
+        return em.persist(user);
+    }
+
+    private Amenity amenity(String name) {
+        Amenity amenity = new Amenity();
+        amenity.setName(name);
+        amenity.setPrice(new BigDecimal("10.00"));
+        return em.persist(amenity);
+    }
+
+    private ReservationAmenity reservationAmenity(Amenity amenity, int quantity) {
+        ReservationAmenity ra = new ReservationAmenity();
+        ra.setAmenity(amenity);
+        ra.setQuantity(quantity);
+        return ra;
+    }
+}
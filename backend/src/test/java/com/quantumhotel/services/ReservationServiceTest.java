@@ -9,12 +9,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +40,15 @@ class ReservationServiceTest {
     @Mock
     private AmenityRepository amenityRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private NightLedger nightLedger;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -50,25 +61,14 @@ class ReservationServiceTest {
         when(userRepository.findByUsername("john"))
                 .thenReturn(Optional.of(user));
 
-        // ---- Category ----
-        AccommodationCategory category = new AccommodationCategory();
-        category.setName("Deluxe");
-
-        // ---- Unit ----
-        AccommodationUnit unit = new AccommodationUnit();
-        unit.setId(10L);
-
         // ---- Reservation ----
-        Reservation reservation = new Reservation();
-        reservation.setUser(user);
-        reservation.setCategory(category);
-        reservation.setUnit(unit);
-        reservation.setStatus(ReservationStatus.PENDING);
-        reservation.setDateFrom(LocalDate.now());
-        reservation.setDateTo(LocalDate.now().plusDays(3));
+        ReservationListRow row = new ReservationListRow(
+                5L, 1L, LocalDate.now(), LocalDate.now().plusDays(3),
+                ReservationStatus.PENDING, "Deluxe", 2L, null, 101
+        );
 
-        when(reservationRepository.findByUserId(1L))
-                .thenReturn(List.of(reservation));
+        when(reservationRepository.findListRowsByUserId(1L))
+                .thenReturn(List.of(row));
 
         // ---- Call ----
         List<ReservationListDTO> result =
@@ -80,4 +80,29 @@ class ReservationServiceTest {
         assertEquals("PENDING", result.get(0).getStatus()); // string
     }
 
+    // the index of this instance may still count a stay another instance rejected, the database decides
+    @Test
+    void shouldConfirmWhatTheDatabaseAllowsWhateverTheIndexSays() {
+        User admin = new User();
+        User guest = new User();
+        guest.setEmail("guest@quantumhotel.com");
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setId(7L);
+        Reservation r = new Reservation();
+        r.setId(5L);
+        r.setUser(guest);
+        r.setUnit(unit);
+        r.setDateFrom(LocalDate.of(2030, 6, 1));
+        r.setDateTo(LocalDate.of(2030, 6, 4));
+        r.setStatus(ReservationStatus.PENDING);
+        when(userRepository.findByUsername("staff")).thenReturn(Optional.of(admin));
+        when(reservationRepository.findById(5L)).thenReturn(Optional.of(r));
+
+        reservationService.confirm(5L, "staff");
+
+        verify(nightLedger).book(r);
+        verify(availabilityIndex, never()).isFree(any(), any(), any());
+        assertEquals(ReservationStatus.CONFIRMED, r.getStatus());
+    }
+
 }
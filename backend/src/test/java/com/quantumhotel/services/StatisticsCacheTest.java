@@ -0,0 +1,147 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.Amenity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+    private static final LocalDate END = LocalDate.of(2030, 6, 30);
+
+    private ContentVersions contentVersions;
+    private StatisticsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        contentVersions = new ContentVersions();
+        cache = new StatisticsCache(contentVersions, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void reportIsComputedOnceForAllFormats() {
+        HotelStatisticsDTO json = cache.get(START, END, loader());
+        HotelStatisticsDTO xml = cache.get(START, END, loader());
+
+        assertSame(json, xml);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onlyReportsOverlappingAChangeAreDropped() {
+        cache.get(START, END, loader());
+        cache.get(END.plusDays(1), END.plusDays(31), loader());
+
+        cache.onReservationChanged(ReservationChangedEvent.of(1L, END.minusDays(2), END));
+        cache.get(START, END, loader());
+        cache.get(END.plusDays(1), END.plusDays(31), loader());
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void recomputedArrivalDaysDropTheirReports() {
+        cache.get(START, END, loader());
+        cache.get(END.plusDays(1), END.plusDays(31), loader());
+
+        cache.invalidateArrivals(Set.of(END.plusDays(5)));
+        cache.get(START, END, loader());
+        cache.get(END.plusDays(1), END.plusDays(31), loader());
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void catalogChangeMovesTheKey() {
+        cache.get(START, END, loader());
+
+        contentVersions.onCatalogChanged(new CatalogChangedEvent(Amenity.class, 1L));
+        cache.get(START, END, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<HotelStatisticsDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.get(START, END, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return new HotelStatisticsDTO(START, END);
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            HotelStatisticsDTO first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<HotelStatisticsDTO> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void computationRacingWithAChangeIsNotKept() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<HotelStatisticsDTO> racing = pool.submit(() -> cache.get(START, END, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new HotelStatisticsDTO(START, END);
+            }));
+            await(started);
+            cache.onReservationChanged(ReservationChangedEvent.of(1L, START.plusDays(3), START.plusDays(5)));
+            release.countDown();
+            assertNotNull(racing.get(5, TimeUnit.SECONDS));
+
+            cache.get(START, END, loader());
+            assertEquals(2, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Supplier<HotelStatisticsDTO> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new HotelStatisticsDTO(START, END);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.quantumhotel.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class StatisticsQueriesTest {
+
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private StatisticsQueries queries;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        queries = new StatisticsQueries(transactionManager, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queries.shutdown();
+    }
+
+    @Test
+    void queriesRunSideBySideInReadOnlyTransactions() throws Exception {
+        // neither query gets past the barrier unless the other one is running too
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        CompletableFuture<String> stays = queries.submit("raw", "stays", () -> await(barrier, "stays"));
+        CompletableFuture<String> cities = queries.submit("raw", "cities", () -> await(barrier, "cities"));
+
+        assertEquals("stays", stays.get(5, TimeUnit.SECONDS));
+        assertEquals("cities", cities.get(5, TimeUnit.SECONDS));
+        verify(transactionManager, times(2)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(1, meterRegistry.get("statistics.query").tag("source", "raw").tag("query", "stays")
+                .timer().count());
+    }
+
+    @Test
+    void queriesJoinTheCallersTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            CompletableFuture<String> thread = queries.submit("raw", "stays", () -> Thread.currentThread().getName());
+
+            assertEquals(Thread.currentThread().getName(), StatisticsQueries.join(thread));
+            verifyNoInteractions(transactionManager);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void joinRethrowsWhatTheQueryThrew() {
+        CompletableFuture<Object> failing = queries.submit("rollup", "guests", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> StatisticsQueries.join(failing));
+        assertEquals("boom", e.getMessage());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static String await(CyclicBarrier barrier, String result) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.*;
+import com.quantumhotel.repository.DailyStatRepository;
+import com.quantumhotel.users.Gender;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({StatisticsRollup.class, StatisticsService.class, StatisticsQueries.class, SimpleMeterRegistry.class})
+class StatisticsRollupTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1990, 5, 1);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private StatisticsRollup statisticsRollup;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private DailyStatRepository dailyStatRepository;
+
+    @MockBean
+    private StatisticsCache statisticsCache;
+
+    private final Map<AccommodationCategory, AccommodationUnit> units = new HashMap<>();
+    private User ana;
+    private AccommodationCategory twin;
+    private Reservation rejected;
+    private Reservation pending;
+
+    @BeforeEach
+    void setUp() {
+        when(statisticsCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<HotelStatisticsDTO>>getArgument(2).get());
+
+        ana = user("ana", "Zagreb", Gender.FEMALE, BIRTH_DATE);
+        User ivo = user("ivo", "Split", Gender.MALE, null);
+        twin = category("Twin", "100.00");
+        AccommodationCategory suite = category("Suite", "250.00");
+
+        Amenity breakfast = new Amenity();
+        breakfast.setName("Breakfast");
+        breakfast.setPrice(new BigDecimal("10.00"));
+        em.persist(breakfast);
+
+        Reservation confirmed = reservation(ana, twin, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED);
+        ReservationAmenity ra = new ReservationAmenity();
+        ra.setAmenity(breakfast);
+        ra.setQuantity(2);
+        confirmed.addAmenity(ra);
+        em.persist(confirmed);
+
+        rejected = em.persist(reservation(ivo, twin, JUNE, JUNE.plusDays(2), ReservationStatus.REJECTED));
+        pending = em.persist(reservation(ana, suite, JUNE.plusDays(9), JUNE.plusDays(11), ReservationStatus.PENDING));
+        // leaves after the end of the range, not part of June
+        em.persist(reservation(ivo, suite, JUNE.plusDays(27), JUNE.plusDays(31), ReservationStatus.CONFIRMED));
+        em.flush();
+
+        statisticsRollup.rebuild();
+    }
+
+    @Test
+    void reportIsSummedFromRollup() {
+        HotelStatisticsDTO stats = statisticsService.generateStatistics(JUNE, JUNE.plusDays(29));
+
+        assertEquals(3, stats.getTotalReservations());
+        assertEquals(1, stats.getCompletedReservations());
+        assertEquals(1, stats.getCancelledReservations());
+        // 3 nights * 100 + 2 breakfasts * 10
+        assertEquals(new BigDecimal("320.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("2.33"), stats.getAverageStayDuration());
+
+        assertEquals(Map.of("Zagreb", 2, "Split", 1), stats.getReservationsByCity());
+        assertEquals(Map.of("FEMALE", 2, "MALE", 1), stats.getReservationsByGender());
+        int age = Period.between(BIRTH_DATE, LocalDate.now()).getYears();
+        assertEquals(Map.of(StatisticsService.getAgeGroup(age), 2), stats.getReservationsByAgeGroup());
+
+        assertEquals(1, stats.getTopAccommodations().size());
+        assertEquals("Twin", stats.getTopAccommodations().get(0).getCategoryName());
+        assertEquals(0, new BigDecimal("300").compareTo(stats.getTopAccommodations().get(0).getTotalRevenue()));
+        assertEquals(1, stats.getPopularAmenities().size());
+        assertEquals(2, stats.getPopularAmenities().get(0).getUsageCount());
+    }
+
+    @Test
+    void refreshPicksUpStatusAndDateChanges() {
+        // the rebuild cleared the persistence context
+        pending = em.find(Reservation.class, pending.getId());
+        rejected = em.find(Reservation.class, rejected.getId());
+        pending.setStatus(ReservationStatus.CONFIRMED);
+        rejected.setDateFrom(JUNE.plusDays(19));
+        rejected.setDateTo(JUNE.plusDays(21));
+        em.flush();
+
+        statisticsRollup.refresh(pending.getDateFrom());
+        statisticsRollup.refresh(JUNE);
+        statisticsRollup.refresh(rejected.getDateFrom());
+
+        HotelStatisticsDTO stats = statisticsService.generateStatistics(JUNE, JUNE.plusDays(29));
+        assertEquals(3, stats.getTotalReservations());
+        assertEquals(2, stats.getCompletedReservations());
+        // + 2 nights * 250 for the suite
+        assertEquals(new BigDecimal("820.00"), stats.getTotalRevenue());
+
+        HotelStatisticsDTO firstWeek = statisticsService.generateStatistics(JUNE, JUNE.plusDays(6));
+        assertEquals(1, firstWeek.getTotalReservations());
+        assertEquals(0, firstWeek.getCancelledReservations());
+    }
+
+    // months apart, rebuilt a month at a time; rows of arrivals nobody has any more go
+    @Test
+    void rebuildCoversEveryMonthAndDropsStaleArrivals() {
+        LocalDate autumn = JUNE.plusMonths(4).plusDays(10);
+        em.persist(reservation(ana, twin, autumn, autumn.plusDays(2), ReservationStatus.CONFIRMED));
+        LocalDate stale = JUNE.plusYears(5);
+        em.persist(new DailyStat(stale, stale.plusDays(1), twin.getId(), ReservationStatus.CONFIRMED, 1));
+        em.flush();
+
+        statisticsRollup.rebuild();
+
+        assertEquals(3, statisticsService.generateStatistics(JUNE, JUNE.plusDays(29)).getTotalReservations());
+        HotelStatisticsDTO later = statisticsService.generateStatistics(autumn, autumn.plusDays(2));
+        assertEquals(1, later.getTotalReservations());
+        assertEquals(new BigDecimal("200.00"), later.getTotalRevenue());
+        assertTrue(dailyStatRepository.findAll().stream().noneMatch(s -> s.getArrival().equals(stale)));
+    }
+
+    private User user(String username, String city, Gender gender, LocalDate dateOfBirth) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@quantumhotel.com");
+        user.setRole(Role.USER);
+        user.setCity(city);
+        user.setGender(gender);
+        user.setDateOfBirth(dateOfBirth);
+        return em.persist(user);
+    }
+
+    private AccommodationCategory category(String name, String price) {
+        AccommodationCategory category = new AccommodationCategory();
+        category.setName(name);
+        category.setPrice(new BigDecimal(price));
+        em.persist(category);
+
+        AccommodationUnit unit = new AccommodationUnit();
+        unit.setRoomNumber(100 + units.size());
+        unit.setCategory(category);
+        units.put(category, em.persist(unit));
+        return category;
+    }
+
+    private Reservation reservation(User user, AccommodationCategory category, LocalDate from, LocalDate to,
+                                    ReservationStatus status) {
+        Reservation r = new Reservation();
+        r.setUser(user);
+        r.setCategory(category);
+        r.setUnit(units.get(category));
+        r.setDateFrom(from);
+        r.setDateTo(to);
+        r.setStatus(status);
+        return r;
+    }
+}
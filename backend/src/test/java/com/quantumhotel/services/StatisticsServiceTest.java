@@ -0,0 +1,232 @@
+package com.quantumhotel.services;
+
+import com.quantumhotel.controllers.dto.HotelStatisticsDTO;
+import com.quantumhotel.entity.*;
+import com.quantumhotel.repository.ReservationExportRow;
+import com.quantumhotel.repository.ReservationFactRow;
+import com.quantumhotel.repository.ReservationLineRow;
+import com.quantumhotel.users.Gender;
+import com.quantumhotel.users.Role;
+import com.quantumhotel.users.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * The report over raw reservations (rollup switched off): every aggregate
+ * is computed by the database.
+ */
+@DataJpaTest(properties = "app.statistics.rollup.enabled=false")
+@Import({StatisticsRollup.class, StatisticsService.class, StatisticsQueries.class, SimpleMeterRegistry.class})
+class StatisticsServiceTest {
+
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @MockBean
+    private StatisticsCache statisticsCache;
+
+    private AccommodationCategory twin;
+    private AccommodationUnit unit;
+
+    @BeforeEach
+    void setUp() {
+        when(statisticsCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<HotelStatisticsDTO>>getArgument(2).get());
+
+        twin = new AccommodationCategory();
+        twin.setName("Twin");
+        twin.setPrice(new BigDecimal("100.00"));
+        em.persist(twin);
+
+        unit = new AccommodationUnit();
+        unit.setRoomNumber(101);
+        unit.setCategory(twin);
+        em.persist(unit);
+    }
+
+    @Test
+    void aggregatesAreComputedInTheDatabase() {
+        User ana = user("ana", "Zagreb", Gender.FEMALE, LocalDate.of(1990, 5, 1));
+        User ivo = user("ivo", "Split", null, null);
+
+        Amenity breakfast = new Amenity();
+        breakfast.setName("Breakfast");
+        breakfast.setPrice(new BigDecimal("10.00"));
+        em.persist(breakfast);
+
+        Reservation confirmed = reservation(ana, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED);
+        ReservationAmenity ra = new ReservationAmenity();
+        ra.setAmenity(breakfast);
+        ra.setQuantity(2);
+        confirmed.addAmenity(ra);
+        em.persist(confirmed);
+        em.persist(reservation(ivo, JUNE, JUNE.plusDays(2), ReservationStatus.REJECTED));
+        em.persist(reservation(ivo, JUNE.plusDays(9), JUNE.plusDays(11), ReservationStatus.PENDING));
+        em.persist(reservation(ana, JUNE.plusDays(27), JUNE.plusDays(31), ReservationStatus.CONFIRMED));
+        em.flush();
+
+        HotelStatisticsDTO stats = statisticsService.generateStatistics(JUNE, JUNE.plusDays(29));
+
+        assertEquals(3, stats.getTotalReservations());
+        assertEquals(1, stats.getCompletedReservations());
+        assertEquals(1, stats.getCancelledReservations());
+        assertEquals(new BigDecimal("320.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("2.33"), stats.getAverageStayDuration());
+        assertEquals(Map.of("Zagreb", 1, "Split", 2), stats.getReservationsByCity());
+        assertEquals(Map.of("FEMALE", 1, "UNKNOWN", 2), stats.getReservationsByGender());
+
+        assertEquals(1, stats.getTopAccommodations().size());
+        assertEquals(1, stats.getTopAccommodations().get(0).getReservationCount());
+        assertEquals(0, new BigDecimal("300").compareTo(stats.getTopAccommodations().get(0).getTotalRevenue()));
+        assertEquals(2, stats.getPopularAmenities().get(0).getUsageCount());
+    }
+
+    // birthdays on and around each cut-off, including 29 February
+    @Test
+    void ageGroupsMatchPeriodBetween() {
+        LocalDate today = LocalDate.now();
+        Map<String, Integer> expected = new HashMap<>();
+        int n = 0;
+        for (int limit : StatisticsService.AGE_LIMITS) {
+            for (int offset = -1; offset <= 1; offset++) {
+                LocalDate born = today.minusYears(limit).plusDays(offset);
+                em.persist(reservation(user("guest" + n++, null, null, born), JUNE, JUNE.plusDays(1),
+                        ReservationStatus.PENDING));
+                expected.merge(StatisticsService.getAgeGroup(Period.between(born, today).getYears()), 1, Integer::sum);
+            }
+        }
+        LocalDate leapDay = LocalDate.of(2008, 2, 29);
+        em.persist(reservation(user("leap", null, null, leapDay), JUNE, JUNE.plusDays(1), ReservationStatus.PENDING));
+        expected.merge(StatisticsService.getAgeGroup(Period.between(leapDay, today).getYears()), 1, Integer::sum);
+        em.flush();
+
+        HotelStatisticsDTO stats = statisticsService.generateStatistics(JUNE, JUNE.plusDays(1));
+
+        assertEquals(expected, stats.getReservationsByAgeGroup());
+    }
+
+    @Test
+    void reservationsOfTheRangeAreStreamedInArrivalOrder() {
+        User ana = user("ana", "Zagreb", Gender.FEMALE, null);
+        Reservation late = em.persist(reservation(ana, JUNE.plusDays(9), JUNE.plusDays(11), ReservationStatus.PENDING));
+        Reservation early = em.persist(reservation(ana, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED));
+        em.persist(reservation(ana, JUNE.plusDays(27), JUNE.plusDays(31), ReservationStatus.CONFIRMED));
+        em.flush();
+
+        List<ReservationExportRow> rows = new ArrayList<>();
+        statisticsService.forEachReservation(JUNE, JUNE.plusDays(29), rows::add);
+
+        assertEquals(List.of(early.getId(), late.getId()), rows.stream().map(ReservationExportRow::id).toList());
+        assertEquals("ana", rows.get(0).username());
+        assertEquals("Twin", rows.get(0).categoryName());
+        assertEquals(101, rows.get(0).unitNumber());
+    }
+
+    @Test
+    void reservationLinesCarryEveryAddOn() {
+        User ana = user("ana", "Zagreb", Gender.FEMALE, null);
+        Amenity breakfast = amenity("Breakfast");
+        Amenity parking = amenity("Parking");
+        Reservation withAddOns = reservation(ana, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED);
+        withAddOns.addAmenity(reservationAmenity(breakfast, 2));
+        withAddOns.addAmenity(reservationAmenity(parking, 1));
+        em.persist(withAddOns);
+        Reservation without = em.persist(reservation(ana, JUNE.plusDays(5), JUNE.plusDays(6),
+                ReservationStatus.PENDING));
+        em.flush();
+
+        List<ReservationLineRow> lines = new ArrayList<>();
+        statisticsService.forEachReservationLine(JUNE, JUNE.plusDays(29), lines::add);
+
+        assertEquals(List.of(withAddOns.getId(), withAddOns.getId(), without.getId()),
+                lines.stream().map(ReservationLineRow::id).toList());
+        assertEquals("Breakfast", lines.get(0).amenityName());
+        assertEquals(2, lines.get(0).quantity());
+        assertEquals("Parking", lines.get(1).amenityName());
+        assertNull(lines.get(2).lineId());
+    }
+
+    @Test
+    void factsSumUpTheAddOnsOfEachReservation() {
+        User ana = user("ana", "Zagreb", Gender.FEMALE, LocalDate.of(1990, 5, 1));
+        Reservation withAddOns = reservation(ana, JUNE, JUNE.plusDays(3), ReservationStatus.CONFIRMED);
+        withAddOns.addAmenity(reservationAmenity(amenity("Breakfast"), 2));
+        withAddOns.addAmenity(reservationAmenity(amenity("Parking"), 1));
+        em.persist(withAddOns);
+        Reservation without = em.persist(reservation(ana, JUNE.plusDays(5), JUNE.plusDays(6),
+                ReservationStatus.PENDING));
+        em.flush();
+
+        List<ReservationFactRow> facts = new ArrayList<>();
+        statisticsService.forEachReservationFact(JUNE, JUNE.plusDays(29), facts::add);
+
+        assertEquals(List.of(withAddOns.getId(), without.getId()),
+                facts.stream().map(ReservationFactRow::id).toList());
+        assertEquals(3L, facts.get(0).amenityQuantity());
+        assertEquals(0, new BigDecimal("30").compareTo(facts.get(0).amenityRevenue()));
+        assertEquals(Gender.FEMALE, facts.get(0).gender());
+        assertEquals(LocalDate.of(1990, 5, 1), facts.get(0).dateOfBirth());
+        assertNull(facts.get(1).amenityRevenue());
+    }
+
+    private Amenity amenity(String name) {
+        Amenity amenity = new Amenity();
+        amenity.setName(name);
+        amenity.setPrice(new BigDecimal("10.00"));
+        return em.persist(amenity);
+    }
+
+    private static ReservationAmenity reservationAmenity(Amenity amenity, int quantity) {
+        ReservationAmenity ra = new ReservationAmenity();
+        ra.setAmenity(amenity);
+        ra.setQuantity(quantity);
+        return ra;
+    }
+
+    private User user(String username, String city, Gender gender, LocalDate dateOfBirth) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@quantumhotel.com");
+        user.setRole(Role.USER);
+        user.setCity(city);
+        user.setGender(gender);
+        user.setDateOfBirth(dateOfBirth);
+        return em.persist(user);
+    }
+
+    private Reservation reservation(User user, LocalDate from, LocalDate to, ReservationStatus status) {
+        Reservation r = new Reservation();
+        r.setUser(user);
+        r.setCategory(twin);
+        r.setUnit(unit);
+        r.setDateFrom(from);
+        r.setDateTo(to);
+        r.setStatus(status);
+        return r;
+    }
+}